@@ -0,0 +1,104 @@
+package com.qa.automation.config;
+
+import com.qa.automation.service.JenkinsRequestGuard;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * HTTP client shared by every Jenkins-facing service. One pooled, keep-alive
+ * connection manager is reused across the parallel sync workers, responses are
+ * requested gzip-compressed, and the Basic auth header is computed once. Every
+ * request passes through {@link JenkinsRequestGuard} first.
+ */
+@Configuration
+public class JenkinsConfig {
+
+    @Value("${jenkins.username:}")
+    private String jenkinsUsername;
+
+    @Value("${jenkins.token:}")
+    private String jenkinsToken;
+
+    @Value("${jenkins.http.max-connections:64}")
+    private int maxConnections;
+
+    @Value("${jenkins.http.max-connections-per-route:32}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${jenkins.http.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${jenkins.http.read-timeout-ms:60000}")
+    private long readTimeoutMs;
+
+    @Value("${jenkins.http.pool-timeout-ms:10000}")
+    private long poolTimeoutMs;
+
+    @Value("${jenkins.http.idle-timeout-seconds:30}")
+    private long idleTimeoutSeconds;
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient jenkinsHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(5))
+                        .build())
+                .build();
+
+        // Content compression is on by default: gzip/deflate is requested and decoded transparently
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(idleTimeoutSeconds))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate jenkinsRestTemplate(CloseableHttpClient jenkinsHttpClient, JenkinsRequestGuard jenkinsRequestGuard) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(jenkinsHttpClient));
+
+        // Outermost, so rejected calls never reach the connection pool
+        restTemplate.getInterceptors().add(jenkinsRequestGuard);
+
+        String authHeader = getJenkinsBasicAuthHeader();
+        if (authHeader != null) {
+            restTemplate.getInterceptors().add((request, body, execution) -> {
+                request.getHeaders().set(HttpHeaders.AUTHORIZATION, authHeader);
+                return execution.execute(request, body);
+            });
+        }
+        return restTemplate;
+    }
+
+    private String getJenkinsBasicAuthHeader() {
+        if (jenkinsUsername == null || jenkinsUsername.isEmpty() ||
+                jenkinsToken == null || jenkinsToken.isEmpty()) {
+            return null;
+        }
+        String auth = jenkinsUsername + ":" + jenkinsToken;
+        return "Basic " + Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,286 @@
+package com.qa.automation.config;
+
+import com.qa.automation.model.JenkinsTestCase;
+import com.qa.automation.service.JenkinsFailureDetailService;
+import com.qa.automation.service.JenkinsTestIdentityService;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Schema adjustments for the Jenkins tables that ddl-auto=update cannot make on its own.
+ * Only cheap DDL runs after the EntityManagerFactory has applied the schema and before any
+ * sync starts; the data migrations continue in the background once the application is ready.
+ */
+@Component
+public class JenkinsSchemaInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(JenkinsSchemaInitializer.class);
+
+    // Rows handled per round trip by the data migrations
+    private static final int MIGRATION_CHUNK = 1000;
+
+    // The identity does not carry byte-for-byte the names the legacy row still holds
+    private static final String NAMES_DIFFER = "(BINARY ti.class_name <> BINARY COALESCE(tc.class_name, '') " +
+            "OR BINARY ti.test_name <> BINARY tc.test_name)";
+
+    // Rows ingested after the switch have no names and are left alone
+    private static final String NOT_EXACT_NAME_MATCH = "tc.test_name IS NOT NULL AND " + NAMES_DIFFER;
+
+    // Depending on the factory guarantees Hibernate has created the tables and sequences
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JenkinsTestIdentityService jenkinsTestIdentityService;
+
+    @Autowired
+    private JenkinsFailureDetailService jenkinsFailureDetailService;
+
+    // Open until every legacy row points at its test identity, or the backfill gave up
+    private final CountDownLatch testIdentityBackfill = new CountDownLatch(1);
+
+    @PostConstruct
+    public void initialize() {
+        alignTestCaseSequence();
+        if (!prepareTestCaseNameMigration()) {
+            testIdentityBackfill.countDown();
+        }
+        addDurationSketchedFlag();
+    }
+
+    /**
+     * Interning the names of every legacy row takes far longer than startup should, so
+     * it runs in chunks in the background. Until a row's chunk is done the row has no
+     * test identity: it shows without names and background jobs that read identities
+     * wait for awaitTestIdentityBackfill.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startTestNameMigration() {
+        if (testIdentityBackfill.getCount() == 0) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                migrateTestCaseNamesToIdentities();
+            } finally {
+                testIdentityBackfill.countDown();
+            }
+        }, "jenkins-test-name-migration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Blocks until legacy test cases have their test identities, for startup jobs that
+     * would otherwise skip the rows still being backfilled.
+     */
+    public void awaitTestIdentityBackfill() throws InterruptedException {
+        testIdentityBackfill.await();
+    }
+
+    /**
+     * Moving failure text reads, hashes and compresses every failed row, which on a large
+     * table takes far longer than startup should, so it runs in the background once the
+     * application is ready. Until a row's chunk is done its failure details are not shown.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startFailureTextMigration() {
+        Thread thread = new Thread(this::migrateFailureTextToDetails, "jenkins-failure-text-migration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * jenkins_test_cases used AUTO_INCREMENT ids before moving to a pooled sequence.
+     * Hibernate creates the sequence starting at 1, so move it past the existing rows.
+     * SETVAL never moves a sequence backwards, which makes this safe on every start.
+     */
+    private void alignTestCaseSequence() {
+        try {
+            Long maxId = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(id), 0) FROM jenkins_test_cases", Long.class);
+            if (maxId != null && maxId > 0) {
+                jdbcTemplate.queryForList("SELECT SETVAL(jenkins_test_cases_seq, ?)", maxId);
+                logger.info("Aligned jenkins_test_cases_seq past existing id {}", maxId);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not align jenkins_test_cases_seq: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * jenkins_test_cases used to store class_name and test_name on every row. New rows
+     * carry no names, so the name columns must accept NULL before any ingest runs; the
+     * rest of the migration happens in migrateTestCaseNamesToIdentities.
+     * Returns whether the legacy columns are still there.
+     */
+    private boolean prepareTestCaseNameMigration() {
+        try {
+            Integer legacyColumns = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE() " +
+                            "AND table_name = 'jenkins_test_cases' AND column_name IN ('class_name', 'test_name')",
+                    Integer.class);
+            if (legacyColumns == null || legacyColumns == 0) {
+                return false;
+            }
+            jdbcTemplate.execute("ALTER TABLE jenkins_test_cases MODIFY test_name VARCHAR(255) NULL");
+            return true;
+        } catch (Exception e) {
+            logger.warn("Could not prepare jenkins_test_cases names for test identities: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Intern the names of legacy rows into jenkins_test_identities in id order, one
+     * chunk at a time, so a restart resumes with the rows still lacking an identity.
+     * Rows an earlier run pointed at a differently cased or padded name are picked up
+     * again. The name columns are dropped only once every row has an identity with
+     * exactly its names.
+     */
+    private void migrateTestCaseNamesToIdentities() {
+        try {
+            long lastId = 0;
+            int migrated = 0;
+            while (true) {
+                List<JenkinsTestCase> chunk = jdbcTemplate.query("SELECT tc.id, tc.class_name, tc.test_name " +
+                        "FROM jenkins_test_cases tc LEFT JOIN jenkins_test_identities ti ON ti.id = tc.test_identity_id " +
+                        "WHERE tc.id > ? AND tc.test_name IS NOT NULL AND (ti.id IS NULL OR " + NAMES_DIFFER + ") " +
+                        "ORDER BY tc.id LIMIT " + MIGRATION_CHUNK, (row, rowNum) -> {
+                    JenkinsTestCase testCase = new JenkinsTestCase(row.getString(3), row.getString(2), null);
+                    testCase.setId(row.getLong(1));
+                    return testCase;
+                }, lastId);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+
+                // Names are compared as Java strings, byte for byte, not by the column collation
+                jenkinsTestIdentityService.assignIdentities(chunk);
+                List<Object[]> updates = new ArrayList<>(chunk.size());
+                for (JenkinsTestCase testCase : chunk) {
+                    updates.add(new Object[]{testCase.getTestIdentityId(), testCase.getId()});
+                }
+                jdbcTemplate.batchUpdate("UPDATE jenkins_test_cases SET test_identity_id = ? WHERE id = ?", updates);
+                migrated += chunk.size();
+                lastId = chunk.get(chunk.size() - 1).getId();
+            }
+
+            Long unmigrated = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM jenkins_test_cases WHERE test_identity_id IS NULL", Long.class);
+            Long mismatched = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM jenkins_test_cases tc " +
+                    "JOIN jenkins_test_identities ti ON ti.id = tc.test_identity_id WHERE " + NOT_EXACT_NAME_MATCH, Long.class);
+            if (unmigrated == null || unmigrated > 0 || mismatched == null || mismatched > 0) {
+                logger.warn("{} jenkins_test_cases rows lack a test identity and {} point at a different name; " +
+                        "keeping the name columns", unmigrated, mismatched);
+                return;
+            }
+            jdbcTemplate.execute("ALTER TABLE jenkins_test_cases DROP COLUMN IF EXISTS class_name, DROP COLUMN IF EXISTS test_name");
+            logger.info("Moved test names of {} jenkins_test_cases rows into test identities", migrated);
+        } catch (Exception e) {
+            logger.warn("Could not migrate jenkins_test_cases names to test identities: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Failed rows used to carry error_message and stack_trace inline. Move them into
+     * jenkins_failure_details in id order, one committed chunk at a time, so a restart
+     * resumes with the rows still lacking a detail. The columns are dropped only once no
+     * row holds text without a detail reference and every referenced detail exists.
+     */
+    private void migrateFailureTextToDetails() {
+        try {
+            Integer legacyColumns = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE() " +
+                            "AND table_name = 'jenkins_test_cases' AND column_name IN ('error_message', 'stack_trace')",
+                    Integer.class);
+            if (legacyColumns == null || legacyColumns == 0) {
+                return;
+            }
+
+            long lastId = 0;
+            int migrated = 0;
+            while (true) {
+                List<JenkinsTestCase> chunk = jdbcTemplate.query("SELECT id, error_message, stack_trace FROM jenkins_test_cases " +
+                        "WHERE id > ? AND failure_detail_id IS NULL AND (error_message IS NOT NULL OR stack_trace IS NOT NULL) " +
+                        "ORDER BY id LIMIT " + MIGRATION_CHUNK, (row, rowNum) -> {
+                    JenkinsTestCase testCase = new JenkinsTestCase();
+                    testCase.setId(row.getLong(1));
+                    testCase.setErrorMessage(row.getString(2));
+                    testCase.setStackTrace(row.getString(3));
+                    return testCase;
+                }, lastId);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+
+                jenkinsFailureDetailService.assignFailureDetails(chunk);
+                List<Object[]> updates = new ArrayList<>(chunk.size());
+                for (JenkinsTestCase testCase : chunk) {
+                    updates.add(new Object[]{testCase.getFailureDetailId(), testCase.getId()});
+                }
+                // A resync may have given the row a newer detail meanwhile; keep that one
+                jdbcTemplate.batchUpdate("UPDATE jenkins_test_cases SET failure_detail_id = ? " +
+                        "WHERE id = ? AND failure_detail_id IS NULL", updates);
+                migrated += chunk.size();
+                lastId = chunk.get(chunk.size() - 1).getId();
+            }
+
+            Long unmigrated = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM jenkins_test_cases " +
+                    "WHERE failure_detail_id IS NULL AND (error_message IS NOT NULL OR stack_trace IS NOT NULL)", Long.class);
+            Long dangling = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM jenkins_test_cases tc " +
+                    "LEFT JOIN jenkins_failure_details fd ON fd.id = tc.failure_detail_id " +
+                    "WHERE tc.failure_detail_id IS NOT NULL AND fd.id IS NULL", Long.class);
+            if (unmigrated == null || unmigrated > 0 || dangling == null || dangling > 0) {
+                logger.warn("{} jenkins_test_cases rows still hold failure text without a detail and {} reference a " +
+                        "missing detail; keeping error_message and stack_trace", unmigrated, dangling);
+                return;
+            }
+            jdbcTemplate.execute("ALTER TABLE jenkins_test_cases DROP COLUMN IF EXISTS error_message, DROP COLUMN IF EXISTS stack_trace");
+            logger.info("Moved failure text of {} jenkins_test_cases rows into jenkins_failure_details", migrated);
+        } catch (Exception e) {
+            logger.warn("Could not migrate jenkins_test_cases failure text: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * jenkins_results.duration_sketched marks builds whose durations are in the sketches,
+     * which lets the seed resume where it stopped. It is written only through JDBC, so
+     * entity saves never reset it. Sketches that predate the flag came from a seed that
+     * ran to completion or was cut short; either way their builds count as sketched,
+     * since re-adding them would double every sample.
+     */
+    private void addDurationSketchedFlag() {
+        try {
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE() " +
+                            "AND table_name = 'jenkins_results' AND column_name = 'duration_sketched'",
+                    Integer.class);
+            if (existing != null && existing > 0) {
+                return;
+            }
+            jdbcTemplate.execute("ALTER TABLE jenkins_results ADD COLUMN IF NOT EXISTS duration_sketched BOOLEAN NULL");
+            Long sketches = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM jenkins_duration_sketches", Long.class);
+            if (sketches != null && sketches > 0) {
+                int marked = jdbcTemplate.update("UPDATE jenkins_results SET duration_sketched = TRUE");
+                logger.info("Marked {} jenkins_results rows as already in the duration sketches", marked);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not add jenkins_results.duration_sketched: {}", e.getMessage());
+        }
+    }
+}
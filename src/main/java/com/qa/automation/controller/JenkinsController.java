@@ -1,5 +1,7 @@
 package com.qa.automation.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.qa.automation.dto.JenkinsSyncReport;
 import com.qa.automation.model.JenkinsResult;
 import com.qa.automation.model.JenkinsTestCase;
 import com.qa.automation.model.Tester;
@@ -7,14 +9,28 @@ import com.qa.automation.model.Project;
 import com.qa.automation.repository.JenkinsResultRepository;
 import com.qa.automation.repository.TesterRepository;
 import com.qa.automation.repository.ProjectRepository;
+import com.qa.automation.service.JenkinsApiClient;
+import com.qa.automation.service.JenkinsBackfillService;
+import com.qa.automation.service.JenkinsBuildDiffService;
+import com.qa.automation.service.JenkinsDurationSketchService;
+import com.qa.automation.service.JenkinsFailureDetailService;
+import com.qa.automation.service.JenkinsFailureSignatureService;
+import com.qa.automation.service.JenkinsRegressionEventService;
+import com.qa.automation.service.JenkinsRequestGuard;
 import com.qa.automation.service.JenkinsService;
+import com.qa.automation.service.JenkinsTestHistoryService;
+import com.qa.automation.service.JenkinsTestIdentityService;
 import com.qa.automation.service.JenkinsTestNGService;
+import com.qa.automation.service.JenkinsWebhookService;
 import com.qa.automation.service.TestNGXMLParserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -29,6 +45,39 @@ public class JenkinsController {
     @Autowired
     private JenkinsTestNGService jenkinsTestNGService;
 
+    @Autowired
+    private JenkinsApiClient jenkinsApiClient;
+
+    @Autowired
+    private JenkinsWebhookService jenkinsWebhookService;
+
+    @Autowired
+    private JenkinsBackfillService jenkinsBackfillService;
+
+    @Autowired
+    private JenkinsRequestGuard jenkinsRequestGuard;
+
+    @Autowired
+    private JenkinsFailureDetailService jenkinsFailureDetailService;
+
+    @Autowired
+    private JenkinsFailureSignatureService jenkinsFailureSignatureService;
+
+    @Autowired
+    private JenkinsTestHistoryService jenkinsTestHistoryService;
+
+    @Autowired
+    private JenkinsBuildDiffService jenkinsBuildDiffService;
+
+    @Autowired
+    private JenkinsRegressionEventService jenkinsRegressionEventService;
+
+    @Autowired
+    private JenkinsDurationSketchService jenkinsDurationSketchService;
+
+    @Autowired
+    private JenkinsTestIdentityService jenkinsTestIdentityService;
+
     @Autowired
     private TestNGXMLParserService testNGXMLParserService;
 
@@ -198,6 +247,200 @@ public class JenkinsController {
         }
     }
 
+    @GetMapping("/testcases/{testCaseId}/failure-details")
+    public ResponseEntity<Map<String, Object>> getFailureDetails(@PathVariable Long testCaseId) {
+        try {
+            return jenkinsFailureDetailService.loadForTestCase(testCaseId)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> {
+                        Map<String, Object> response = new HashMap<>();
+                        response.put("error", "No failure details for test case " + testCaseId);
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+                    });
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "Failed to load failure details: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/failure-signatures/top")
+    public ResponseEntity<Map<String, Object>> getTopFailureSignatures(@RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<Map<String, Object>> signatures = jenkinsFailureSignatureService.getTopSignatures(limit);
+            Map<String, Object> response = new HashMap<>();
+            response.put("signatures", signatures);
+            response.put("count", signatures.size());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "Failed to load top failure signatures: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/failure-signatures/{signatureId}")
+    public ResponseEntity<Map<String, Object>> getFailureSignature(@PathVariable Long signatureId) {
+        return jenkinsFailureSignatureService.getSignature(signatureId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("error", "Failure signature not found: " + signatureId);
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+                });
+    }
+
+    @GetMapping("/jobs/diff")
+    public ResponseEntity<Map<String, Object>> diffBuilds(
+            @RequestParam String jobName,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "500") int limit) {
+        try {
+            return ResponseEntity.ok(jenkinsBuildDiffService.diff(jobName, from, to, limit));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "Failed to diff builds: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/regression-events")
+    public ResponseEntity<Map<String, Object>> getRegressionEvents(
+            @RequestParam(required = false) String jobName,
+            @RequestParam(required = false) String buildNumber,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            LocalDateTime sinceTime = since != null ? LocalDate.parse(since).atStartOfDay() : null;
+            List<Map<String, Object>> events = jenkinsRegressionEventService.getEvents(jobName, buildNumber,
+                    type != null ? type.toUpperCase() : null, sinceTime, limit);
+            Map<String, Object> response = new HashMap<>();
+            response.put("events", events);
+            response.put("count", events.size());
+            return ResponseEntity.ok(response);
+        } catch (DateTimeParseException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "since must be a date (yyyy-MM-dd): " + since);
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "Failed to load regression events: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    // Folder and multibranch jobs are keyed by their "folder/job" full name, so the job goes in the query
+    @GetMapping("/jobs/test-history")
+    public ResponseEntity<Map<String, Object>> getTestHistory(
+            @RequestParam String jobName,
+            @RequestParam(required = false) String className,
+            @RequestParam String testName,
+            @RequestParam(defaultValue = "50") int limit) {
+        Optional<Map<String, Object>> history = jenkinsTestIdentityService.findIdentityId(className, testName)
+                .flatMap(id -> jenkinsTestHistoryService.getHistory(jobName, id, limit));
+        if (history.isEmpty()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "No history for test " + (className != null ? className + "." : "") + testName +
+                    " in job " + jobName);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        Map<String, Object> response = history.get();
+        response.put("className", className);
+        response.put("testName", testName);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/jobs/flaky-tests")
+    public ResponseEntity<Map<String, Object>> getFlakyTests(
+            @RequestParam String jobName,
+            @RequestParam(defaultValue = "0") int window,
+            @RequestParam(defaultValue = "10") int minRuns,
+            @RequestParam(defaultValue = "20") int limit) {
+        List<Map<String, Object>> tests = jenkinsTestHistoryService.getFlakyTests(jobName, window, minRuns, limit);
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobName", jobName);
+        response.put("tests", tests);
+        response.put("count", tests.size());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/jobs/failing-tests")
+    public ResponseEntity<Map<String, Object>> getFailingTests(
+            @RequestParam String jobName,
+            @RequestParam(defaultValue = "100") int limit) {
+        List<Map<String, Object>> tests = jenkinsTestHistoryService.getFailingTests(jobName, limit);
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobName", jobName);
+        response.put("tests", tests);
+        response.put("count", tests.size());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/jobs/test-durations")
+    public ResponseEntity<Map<String, Object>> getTestDurations(
+            @RequestParam String jobName,
+            @RequestParam(required = false) String className,
+            @RequestParam String testName) {
+        Optional<Map<String, Object>> durations = jenkinsTestIdentityService.findIdentityId(className, testName)
+                .flatMap(id -> jenkinsDurationSketchService.getDurations(jobName, id));
+        if (durations.isEmpty()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "No durations for test " + (className != null ? className + "." : "") + testName +
+                    " in job " + jobName);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        Map<String, Object> response = durations.get();
+        response.put("className", className);
+        response.put("testName", testName);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/jobs/slowest-tests")
+    public ResponseEntity<Map<String, Object>> getSlowestTests(
+            @RequestParam String jobName,
+            @RequestParam(defaultValue = "p50") String by,
+            @RequestParam(defaultValue = "20") int limit) {
+        List<Map<String, Object>> tests = jenkinsDurationSketchService.getSlowestTests(jobName, "p95".equalsIgnoreCase(by), limit);
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobName", jobName);
+        response.put("tests", tests);
+        response.put("count", tests.size());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/jobs/duration-regressions")
+    public ResponseEntity<Map<String, Object>> getDurationRegressions(
+            @RequestParam String jobName,
+            @RequestParam(required = false) Double factor,
+            @RequestParam(required = false) Double minSeconds,
+            @RequestParam(required = false) Long minSamples,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            List<Map<String, Object>> tests = jenkinsDurationSketchService.getDurationRegressions(jobName, factor,
+                    minSeconds, minSamples, limit);
+            Map<String, Object> response = new HashMap<>();
+            response.put("jobName", jobName);
+            response.put("tests", tests);
+            response.put("count", tests.size());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "Failed to load duration regressions: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/test-history/stats")
+    public ResponseEntity<Map<String, Object>> getTestHistoryStats() {
+        return ResponseEntity.ok(jenkinsTestHistoryService.getStats());
+    }
+
     @GetMapping("/statistics")
     public ResponseEntity<Map<String, Object>> getJenkinsStatistics() {
         try {
@@ -208,20 +451,180 @@ public class JenkinsController {
         }
     }
 
+    /**
+     * Build-completion notifications from Jenkins (Notification plugin or a generic
+     * webhook). The notified build is queued and synced in the background.
+     */
+    @PostMapping("/webhook")
+    public ResponseEntity<Map<String, Object>> receiveWebhook(
+            @RequestBody(required = false) JsonNode payload,
+            @RequestHeader(value = "X-Jenkins-Token", required = false) String tokenHeader,
+            @RequestParam(value = "token", required = false) String tokenParam) {
+        Map<String, Object> response = new HashMap<>();
+        if (!jenkinsWebhookService.isEnabled()) {
+            response.put("error", "Webhook is disabled: jenkins.webhook.token is not set");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+        if (!jenkinsWebhookService.isAuthorized(tokenHeader != null ? tokenHeader : tokenParam)) {
+            response.put("error", "Invalid webhook token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+
+        JenkinsWebhookService.WebhookEvent event = jenkinsWebhookService.parse(payload);
+        if (event == null) {
+            response.put("error", "Payload must identify a job and a build number");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        JenkinsWebhookService.Outcome outcome = jenkinsWebhookService.submit(event);
+        response.put("jobName", event.getJobName());
+        response.put("buildNumber", event.getBuildNumber());
+        response.put("outcome", outcome);
+        response.put("queueDepth", jenkinsWebhookService.getQueueDepth());
+        switch (outcome) {
+            case REJECTED:
+                response.put("error", "Webhook queue is full");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+            case IGNORED:
+                response.put("message", "Ignored build phase " + event.getPhase());
+                return ResponseEntity.ok(response);
+            default:
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        }
+    }
+
+    @GetMapping("/webhook/stats")
+    public ResponseEntity<Map<String, Object>> getWebhookStats() {
+        return ResponseEntity.ok(jenkinsWebhookService.getStats());
+    }
+
+    @GetMapping("/http-cache/stats")
+    public ResponseEntity<Map<String, Object>> getHttpCacheStats() {
+        return ResponseEntity.ok(jenkinsApiClient.getCacheStats());
+    }
+
+    @GetMapping("/resilience/stats")
+    public ResponseEntity<Map<String, Object>> getResilienceStats() {
+        return ResponseEntity.ok(jenkinsRequestGuard.getStats());
+    }
+
     @PostMapping("/sync")
-    public ResponseEntity<Map<String, String>> syncAllJobs() {
+    public ResponseEntity<Map<String, Object>> syncAllJobs() {
         try {
-            jenkinsService.syncAllJobsFromJenkins();
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "Jenkins jobs synced successfully");
-            return ResponseEntity.ok(response);
+            JenkinsSyncReport active = jenkinsService.getActiveSyncRun();
+            JenkinsSyncReport report = jenkinsService.startSyncRun();
+            boolean attached = active != null && active.getRunId().equals(report.getRunId());
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", attached ? "Jenkins sync already in progress" : "Jenkins sync started");
+            response.put("runId", report.getRunId());
+            response.put("attached", attached);
+            response.put("report", report);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
         } catch (Exception e) {
-            Map<String, String> response = new HashMap<>();
-            response.put("error", "Failed to sync Jenkins jobs: " + e.getMessage());
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "Failed to start Jenkins sync: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
 
+    @GetMapping("/sync/runs/current")
+    public ResponseEntity<Map<String, Object>> getCurrentSyncRun() {
+        JenkinsSyncReport report = jenkinsService.getActiveSyncRun();
+        Map<String, Object> response = new HashMap<>();
+        if (report == null) {
+            response.put("message", "No Jenkins sync in progress");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        response.put("runId", report.getRunId());
+        response.put("report", report);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/sync/runs/{runId}")
+    public ResponseEntity<Map<String, Object>> getSyncRun(@PathVariable String runId) {
+        JenkinsSyncReport report = jenkinsService.getSyncRun(runId);
+        Map<String, Object> response = new HashMap<>();
+        if (report == null) {
+            response.put("error", "Sync run not found: " + runId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        response.put("runId", report.getRunId());
+        response.put("report", report);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/sync/runs/{runId}/cancel")
+    public ResponseEntity<Map<String, Object>> cancelSyncRun(@PathVariable String runId) {
+        Map<String, Object> response = new HashMap<>();
+        if (jenkinsService.getSyncRun(runId) == null) {
+            response.put("error", "Sync run not found: " + runId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        if (!jenkinsService.cancelSyncRun(runId)) {
+            response.put("error", "Sync run " + runId + " has already finished");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        response.put("message", "Cancellation requested for sync run " + runId);
+        response.put("report", jenkinsService.getSyncRun(runId));
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/backfill")
+    public ResponseEntity<Map<String, Object>> startBackfill(@RequestBody Map<String, Object> request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            List<String> jobs = new ArrayList<>();
+            if (request.get("jobs") instanceof List<?> requestedJobs) {
+                requestedJobs.forEach(job -> jobs.add(String.valueOf(job)));
+            }
+            Integer maxBuilds = request.get("maxBuilds") != null ?
+                    Integer.valueOf(request.get("maxBuilds").toString()) : null;
+            LocalDate since = request.get("since") != null ?
+                    LocalDate.parse(request.get("since").toString()) : null;
+            boolean includeTestCases = Boolean.parseBoolean(String.valueOf(request.get("includeTestCases")));
+
+            JenkinsSyncReport report = jenkinsBackfillService.startBackfill(jobs, maxBuilds, since, includeTestCases);
+            response.put("message", "Backfill started for " + report.getTotalJobs() + " jobs");
+            response.put("runId", report.getRunId());
+            response.put("report", report);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            response.put("error", "Invalid backfill request: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            response.put("error", "Failed to start backfill: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @PostMapping("/backfill/resume")
+    public ResponseEntity<Map<String, Object>> resumeBackfill() {
+        JenkinsSyncReport report = jenkinsBackfillService.resumeUnfinished();
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Resumed backfill for " + report.getTotalJobs() + " jobs");
+        response.put("runId", report.getRunId());
+        response.put("report", report);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @GetMapping("/backfill/runs/{runId}")
+    public ResponseEntity<Map<String, Object>> getBackfillRun(@PathVariable String runId) {
+        JenkinsSyncReport report = jenkinsBackfillService.getRun(runId);
+        Map<String, Object> response = new HashMap<>();
+        if (report == null) {
+            response.put("error", "Backfill run not found: " + runId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        response.put("runId", report.getRunId());
+        response.put("report", report);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/backfill/checkpoints")
+    public ResponseEntity<Object> getBackfillCheckpoints() {
+        return ResponseEntity.ok(jenkinsBackfillService.getCheckpoints());
+    }
+
     @PostMapping("/sync/{jobName}")
     public ResponseEntity<Map<String, String>> syncJobResult(@PathVariable String jobName) {
         try {
@@ -238,9 +641,12 @@ public class JenkinsController {
 
     // TestNG specific endpoints
     @GetMapping("/testng/report")
-    public ResponseEntity<Map<String, Object>> generateTestNGReport() {
+    public ResponseEntity<Map<String, Object>> generateTestNGReport(@RequestParam(required = false) String refresh) {
         try {
             Map<String, Object> report = jenkinsTestNGService.generateTestNGReport();
+            if ("async".equalsIgnoreCase(refresh)) {
+                report.put("refresh", jenkinsTestNGService.requestAsyncRefresh());
+            }
             return ResponseEntity.ok(report);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
@@ -269,7 +675,8 @@ public class JenkinsController {
             // First sync all jobs
             jenkinsService.syncAllJobsFromJenkins();
 
-            // Then generate the TestNG report
+            // Then rebuild the TestNG report from the freshly synced results
+            jenkinsTestNGService.refreshReportSnapshot();
             Map<String, Object> report = jenkinsTestNGService.generateTestNGReport();
 
             Map<String, Object> response = new HashMap<>();
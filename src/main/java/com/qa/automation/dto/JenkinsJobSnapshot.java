@@ -0,0 +1,104 @@
+package com.qa.automation.dto;
+
+/**
+ * A job and its lastCompletedBuild as returned by the discovery tree query.
+ * Test counts are null when the build carries no test result action.
+ */
+public class JenkinsJobSnapshot {
+    private String jobName;
+    private String buildNumber;
+    private String buildStatus;
+    private String buildUrl;
+    private Long buildTimestamp;
+    private Long buildDuration;
+    private Integer totalCount;
+    private Integer failCount;
+    private Integer skipCount;
+
+    public JenkinsJobSnapshot() {}
+
+    public JenkinsJobSnapshot(String jobName) {
+        this.jobName = jobName;
+    }
+
+    // Getters and Setters
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public String getBuildNumber() {
+        return buildNumber;
+    }
+
+    public void setBuildNumber(String buildNumber) {
+        this.buildNumber = buildNumber;
+    }
+
+    public String getBuildStatus() {
+        return buildStatus;
+    }
+
+    public void setBuildStatus(String buildStatus) {
+        this.buildStatus = buildStatus;
+    }
+
+    public String getBuildUrl() {
+        return buildUrl;
+    }
+
+    public void setBuildUrl(String buildUrl) {
+        this.buildUrl = buildUrl;
+    }
+
+    public Long getBuildTimestamp() {
+        return buildTimestamp;
+    }
+
+    public void setBuildTimestamp(Long buildTimestamp) {
+        this.buildTimestamp = buildTimestamp;
+    }
+
+    public Long getBuildDuration() {
+        return buildDuration;
+    }
+
+    public void setBuildDuration(Long buildDuration) {
+        this.buildDuration = buildDuration;
+    }
+
+    public Integer getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(Integer totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public Integer getFailCount() {
+        return failCount;
+    }
+
+    public void setFailCount(Integer failCount) {
+        this.failCount = failCount;
+    }
+
+    public Integer getSkipCount() {
+        return skipCount;
+    }
+
+    public void setSkipCount(Integer skipCount) {
+        this.skipCount = skipCount;
+    }
+
+    public boolean hasBuild() {
+        return buildNumber != null;
+    }
+
+    public boolean hasTestCounts() {
+        return totalCount != null;
+    }
+}
@@ -0,0 +1,236 @@
+package com.qa.automation.dto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outcome of a Jenkins sync run. Workers record into it concurrently, so all
+ * counters are atomic and the outcome list is synchronized. Runs started from the
+ * API are polled while in progress, so progress, throughput and ETA are derived
+ * from the live counters.
+ */
+public class JenkinsSyncReport {
+
+    public enum JobStatus {
+        SYNCED, UP_TO_DATE, NO_BUILDS, SKIPPED, FAILED, TIMED_OUT, CANCELLED
+    }
+
+    public enum RunState {
+        DISCOVERING, RUNNING, FINISHED, CANCELLED, FAILED
+    }
+
+    public static class JobOutcome {
+        private final String jobName;
+        private final JobStatus status;
+        private final long durationMs;
+        private final String message;
+
+        public JobOutcome(String jobName, JobStatus status, long durationMs, String message) {
+            this.jobName = jobName;
+            this.status = status;
+            this.durationMs = durationMs;
+            this.message = message;
+        }
+
+        public String getJobName() {
+            return jobName;
+        }
+
+        public JobStatus getStatus() {
+            return status;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private final String runId = UUID.randomUUID().toString();
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private volatile LocalDateTime finishedAt;
+    private volatile int totalJobs;
+    private final int concurrency;
+    private volatile RunState state = RunState.DISCOVERING;
+    private volatile boolean cancelRequested;
+    private volatile String error;
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private final AtomicInteger succeededJobs = new AtomicInteger();
+    private final AtomicInteger failedJobs = new AtomicInteger();
+    private final AtomicInteger timedOutJobs = new AtomicInteger();
+    private final AtomicInteger cancelledJobs = new AtomicInteger();
+    private final AtomicInteger inFlightJobs = new AtomicInteger();
+    private final AtomicInteger savedFetches = new AtomicInteger();
+    private final List<JobOutcome> outcomes = Collections.synchronizedList(new ArrayList<>());
+
+    public JenkinsSyncReport(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public JenkinsSyncReport(int totalJobs, int concurrency) {
+        this(concurrency);
+        start(totalJobs);
+    }
+
+    public void start(int totalJobs) {
+        this.totalJobs = totalJobs;
+        this.state = RunState.RUNNING;
+    }
+
+    public void record(String jobName, JobStatus status, long durationMs, String message) {
+        switch (status) {
+            case FAILED:
+                failedJobs.incrementAndGet();
+                break;
+            case TIMED_OUT:
+                timedOutJobs.incrementAndGet();
+                break;
+            case CANCELLED:
+                cancelledJobs.incrementAndGet();
+                break;
+            default:
+                succeededJobs.incrementAndGet();
+        }
+        outcomes.add(new JobOutcome(jobName, status, durationMs, message));
+    }
+
+    public void jobStarted() {
+        inFlightJobs.incrementAndGet();
+    }
+
+    public void jobEnded() {
+        inFlightJobs.decrementAndGet();
+    }
+
+    // Jenkins requests answered from a job's fetch scope instead of the network
+    public void addSavedFetches(int count) {
+        savedFetches.addAndGet(count);
+    }
+
+    public void requestCancel() {
+        this.cancelRequested = true;
+    }
+
+    public synchronized void markFinished() {
+        if (finishedAt != null) {
+            return;
+        }
+        this.finishedAt = LocalDateTime.now();
+        this.state = cancelRequested ? RunState.CANCELLED : RunState.FINISHED;
+        finished.countDown();
+    }
+
+    public synchronized void markFailed(String error) {
+        this.error = error;
+        this.finishedAt = LocalDateTime.now();
+        this.state = RunState.FAILED;
+        finished.countDown();
+    }
+
+    public boolean awaitFinished(long timeout, TimeUnit unit) throws InterruptedException {
+        return finished.await(timeout, unit);
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public RunState getState() {
+        return state;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public boolean isDone() {
+        return finishedAt != null;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public int getTotalJobs() {
+        return totalJobs;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getCompletedJobs() {
+        return outcomes.size();
+    }
+
+    public int getSucceededJobs() {
+        return succeededJobs.get();
+    }
+
+    public int getFailedJobs() {
+        return failedJobs.get();
+    }
+
+    public int getTimedOutJobs() {
+        return timedOutJobs.get();
+    }
+
+    public int getCancelledJobs() {
+        return cancelledJobs.get();
+    }
+
+    public int getInFlightJobs() {
+        return inFlightJobs.get();
+    }
+
+    public int getSavedFetches() {
+        return savedFetches.get();
+    }
+
+    public long getElapsedMs() {
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        return Duration.between(startedAt, end).toMillis();
+    }
+
+    public double getJobsPerSecond() {
+        long elapsedMs = getElapsedMs();
+        return elapsedMs > 0 ? getCompletedJobs() * 1000.0 / elapsedMs : 0;
+    }
+
+    // Null until the first job completes and while discovery is still running
+    public Long getEstimatedRemainingMs() {
+        if (isDone()) {
+            return 0L;
+        }
+        int completed = getCompletedJobs();
+        if (state != RunState.RUNNING || completed == 0) {
+            return null;
+        }
+        return (long) ((totalJobs - completed) * (getElapsedMs() / (double) completed));
+    }
+
+    public List<JobOutcome> getOutcomes() {
+        synchronized (outcomes) {
+            return new ArrayList<>(outcomes);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.qa.automation.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Progress of a history backfill for one Jenkins job. Builds are walked from newest
+ * to oldest and the checkpoint records the lowest build finished so far, so an
+ * interrupted backfill resumes below it instead of starting over.
+ */
+@Entity
+@Table(name = "jenkins_backfill_checkpoints")
+public class JenkinsBackfillCheckpoint {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String INTERRUPTED = "INTERRUPTED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, unique = true)
+    private String jobName;
+
+    // Target: the newest maxBuilds builds and/or builds started at or after sinceTimestamp
+    @Column(name = "max_builds")
+    private Integer maxBuilds;
+
+    @Column(name = "since_timestamp")
+    private Long sinceTimestamp;
+
+    @Column(name = "include_test_cases")
+    private Boolean includeTestCases;
+
+    // Every build numbered at or above this one has been handled
+    @Column(name = "resume_below_build")
+    private Integer resumeBelowBuild;
+
+    @Column(name = "builds_ingested")
+    private Integer buildsIngested;
+
+    @Column(name = "builds_skipped")
+    private Integer buildsSkipped;
+
+    @Column(name = "status")
+    private String status;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public JenkinsBackfillCheckpoint() {}
+
+    public JenkinsBackfillCheckpoint(String jobName) {
+        this.jobName = jobName;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public Integer getMaxBuilds() {
+        return maxBuilds;
+    }
+
+    public void setMaxBuilds(Integer maxBuilds) {
+        this.maxBuilds = maxBuilds;
+    }
+
+    public Long getSinceTimestamp() {
+        return sinceTimestamp;
+    }
+
+    public void setSinceTimestamp(Long sinceTimestamp) {
+        this.sinceTimestamp = sinceTimestamp;
+    }
+
+    public Boolean getIncludeTestCases() {
+        return includeTestCases;
+    }
+
+    public void setIncludeTestCases(Boolean includeTestCases) {
+        this.includeTestCases = includeTestCases;
+    }
+
+    public Integer getResumeBelowBuild() {
+        return resumeBelowBuild;
+    }
+
+    public void setResumeBelowBuild(Integer resumeBelowBuild) {
+        this.resumeBelowBuild = resumeBelowBuild;
+    }
+
+    public Integer getBuildsIngested() {
+        return buildsIngested;
+    }
+
+    public void setBuildsIngested(Integer buildsIngested) {
+        this.buildsIngested = buildsIngested;
+    }
+
+    public Integer getBuildsSkipped() {
+        return buildsSkipped;
+    }
+
+    public void setBuildsSkipped(Integer buildsSkipped) {
+        this.buildsSkipped = buildsSkipped;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    // Utility methods
+    public boolean isResumableFor(Integer maxBuilds, Long sinceTimestamp, boolean includeTestCases) {
+        return !COMPLETED.equals(status) &&
+                Objects.equals(this.maxBuilds, maxBuilds) &&
+                Objects.equals(this.sinceTimestamp, sinceTimestamp) &&
+                Boolean.valueOf(includeTestCases).equals(this.includeTestCases);
+    }
+
+    public void restart(Integer maxBuilds, Long sinceTimestamp, boolean includeTestCases) {
+        this.maxBuilds = maxBuilds;
+        this.sinceTimestamp = sinceTimestamp;
+        this.includeTestCases = includeTestCases;
+        this.resumeBelowBuild = null;
+        this.buildsIngested = 0;
+        this.buildsSkipped = 0;
+        this.lastError = null;
+    }
+
+    @Override
+    public String toString() {
+        return "JenkinsBackfillCheckpoint{" +
+                "jobName='" + jobName + '\'' +
+                ", status='" + status + '\'' +
+                ", resumeBelowBuild=" + resumeBelowBuild +
+                ", buildsIngested=" + buildsIngested +
+                ", buildsSkipped=" + buildsSkipped +
+                '}';
+    }
+}
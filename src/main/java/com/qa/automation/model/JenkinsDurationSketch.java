@@ -0,0 +1,165 @@
+package com.qa.automation.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Duration distribution of one test within one job, as an encoded quantile sketch.
+ * p50/p95 are kept next to it so ranking queries can sort in the database; baselineP95
+ * is the p95 before the latest run was added, which the latest duration is judged by.
+ */
+@Entity
+@Table(name = "jenkins_duration_sketches",
+        uniqueConstraints = @UniqueConstraint(name = "uk_duration_sketch_job_test", columnNames = {"job_name", "test_identity_id"}),
+        indexes = @Index(name = "idx_duration_sketches_job_p50", columnList = "job_name, p50"))
+public class JenkinsDurationSketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false)
+    private String jobName;
+
+    @Column(name = "test_identity_id", nullable = false)
+    private Long testIdentityId;
+
+    @Column(name = "sketch", nullable = false, columnDefinition = "BLOB")
+    private byte[] sketch;
+
+    @Column(name = "sample_count")
+    private Long sampleCount;
+
+    @Column(name = "p50")
+    private Double p50;
+
+    @Column(name = "p95")
+    private Double p95;
+
+    @Column(name = "baseline_p95")
+    private Double baselineP95;
+
+    @Column(name = "last_duration")
+    private Double lastDuration;
+
+    @Column(name = "last_build_number")
+    private String lastBuildNumber;
+
+    @Column(name = "last_build_at")
+    private LocalDateTime lastBuildAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public JenkinsDurationSketch() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public Long getTestIdentityId() {
+        return testIdentityId;
+    }
+
+    public void setTestIdentityId(Long testIdentityId) {
+        this.testIdentityId = testIdentityId;
+    }
+
+    public byte[] getSketch() {
+        return sketch;
+    }
+
+    public void setSketch(byte[] sketch) {
+        this.sketch = sketch;
+    }
+
+    public Long getSampleCount() {
+        return sampleCount;
+    }
+
+    public void setSampleCount(Long sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+
+    public Double getP50() {
+        return p50;
+    }
+
+    public void setP50(Double p50) {
+        this.p50 = p50;
+    }
+
+    public Double getP95() {
+        return p95;
+    }
+
+    public void setP95(Double p95) {
+        this.p95 = p95;
+    }
+
+    public Double getBaselineP95() {
+        return baselineP95;
+    }
+
+    public void setBaselineP95(Double baselineP95) {
+        this.baselineP95 = baselineP95;
+    }
+
+    public Double getLastDuration() {
+        return lastDuration;
+    }
+
+    public void setLastDuration(Double lastDuration) {
+        this.lastDuration = lastDuration;
+    }
+
+    public String getLastBuildNumber() {
+        return lastBuildNumber;
+    }
+
+    public void setLastBuildNumber(String lastBuildNumber) {
+        this.lastBuildNumber = lastBuildNumber;
+    }
+
+    public LocalDateTime getLastBuildAt() {
+        return lastBuildAt;
+    }
+
+    public void setLastBuildAt(LocalDateTime lastBuildAt) {
+        this.lastBuildAt = lastBuildAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "JenkinsDurationSketch{" +
+                "jobName='" + jobName + '\'' +
+                ", testIdentityId=" + testIdentityId +
+                ", sampleCount=" + sampleCount +
+                ", p50=" + p50 +
+                ", p95=" + p95 +
+                ", lastDuration=" + lastDuration +
+                '}';
+    }
+}
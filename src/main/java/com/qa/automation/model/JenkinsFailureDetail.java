@@ -0,0 +1,104 @@
+package com.qa.automation.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import java.time.LocalDateTime;
+
+/**
+ * One stored copy of a failure message and stack trace, shared by every test row
+ * that failed with the same (normalized) text. The id is the first 64 bits of the
+ * SHA-256 of the content; the full digest is kept to detect the rare id collision.
+ */
+@Entity
+@Table(name = "jenkins_failure_details")
+@BatchSize(size = 100)
+public class JenkinsFailureDetail {
+
+    @Id
+    private Long id;
+
+    @Column(name = "content_sha256", nullable = false, length = 64)
+    private String contentSha256;
+
+    // Gzip of the encoded message and stack trace
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "content", nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] content;
+
+    @Column(name = "original_bytes")
+    private Integer originalBytes;
+
+    @Column(name = "compressed_bytes")
+    private Integer compressedBytes;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public JenkinsFailureDetail() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getContentSha256() {
+        return contentSha256;
+    }
+
+    public void setContentSha256(String contentSha256) {
+        this.contentSha256 = contentSha256;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public void setContent(byte[] content) {
+        this.content = content;
+    }
+
+    public Integer getOriginalBytes() {
+        return originalBytes;
+    }
+
+    public void setOriginalBytes(Integer originalBytes) {
+        this.originalBytes = originalBytes;
+    }
+
+    public Integer getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    public void setCompressedBytes(Integer compressedBytes) {
+        this.compressedBytes = compressedBytes;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "JenkinsFailureDetail{" +
+                "id=" + id +
+                ", contentSha256='" + contentSha256 + '\'' +
+                ", originalBytes=" + originalBytes +
+                ", compressedBytes=" + compressedBytes +
+                '}';
+    }
+}
@@ -0,0 +1,119 @@
+package com.qa.automation.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A normalized failure fingerprint: exception type, message with numbers, ids and
+ * timestamps stripped, and the top application stack frames. Failures that differ
+ * only in such volatile details share one signature.
+ */
+@Entity
+@Table(name = "jenkins_failure_signatures")
+public class JenkinsFailureSignature {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "fingerprint_sha256", nullable = false, unique = true, length = 64)
+    private String fingerprintSha256;
+
+    @Column(name = "exception_type", length = 512)
+    private String exceptionType;
+
+    @Column(name = "message_pattern", columnDefinition = "TEXT")
+    private String messagePattern;
+
+    @Column(name = "top_frames", columnDefinition = "TEXT")
+    private String topFrames;
+
+    // One full example, loadable through JenkinsFailureDetailService
+    @Column(name = "sample_failure_detail_id")
+    private Long sampleFailureDetailId;
+
+    @Column(name = "first_seen")
+    private LocalDateTime firstSeen;
+
+    @Column(name = "last_seen")
+    private LocalDateTime lastSeen;
+
+    // Constructors
+    public JenkinsFailureSignature() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getFingerprintSha256() {
+        return fingerprintSha256;
+    }
+
+    public void setFingerprintSha256(String fingerprintSha256) {
+        this.fingerprintSha256 = fingerprintSha256;
+    }
+
+    public String getExceptionType() {
+        return exceptionType;
+    }
+
+    public void setExceptionType(String exceptionType) {
+        this.exceptionType = exceptionType;
+    }
+
+    public String getMessagePattern() {
+        return messagePattern;
+    }
+
+    public void setMessagePattern(String messagePattern) {
+        this.messagePattern = messagePattern;
+    }
+
+    public String getTopFrames() {
+        return topFrames;
+    }
+
+    public void setTopFrames(String topFrames) {
+        this.topFrames = topFrames;
+    }
+
+    public Long getSampleFailureDetailId() {
+        return sampleFailureDetailId;
+    }
+
+    public void setSampleFailureDetailId(Long sampleFailureDetailId) {
+        this.sampleFailureDetailId = sampleFailureDetailId;
+    }
+
+    public LocalDateTime getFirstSeen() {
+        return firstSeen;
+    }
+
+    public void setFirstSeen(LocalDateTime firstSeen) {
+        this.firstSeen = firstSeen;
+    }
+
+    public LocalDateTime getLastSeen() {
+        return lastSeen;
+    }
+
+    public void setLastSeen(LocalDateTime lastSeen) {
+        this.lastSeen = lastSeen;
+    }
+
+    @Override
+    public String toString() {
+        return "JenkinsFailureSignature{" +
+                "id=" + id +
+                ", exceptionType='" + exceptionType + '\'' +
+                ", messagePattern='" + messagePattern + '\'' +
+                ", firstSeen=" + firstSeen +
+                ", lastSeen=" + lastSeen +
+                '}';
+    }
+}
@@ -0,0 +1,132 @@
+package com.qa.automation.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Counters of one failure signature within one job. lastBuildNumber/lastBuildCount
+ * describe the newest ingested build that had this failure, which is what the
+ * "top failures across latest builds" view sums up.
+ */
+@Entity
+@Table(name = "jenkins_failure_signature_jobs",
+        uniqueConstraints = @UniqueConstraint(name = "uk_failure_signature_job", columnNames = {"signature_id", "job_name"}),
+        indexes = @Index(name = "idx_failure_signature_jobs_job", columnList = "job_name, last_build_number"))
+public class JenkinsFailureSignatureJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "signature_id", nullable = false)
+    private Long signatureId;
+
+    @Column(name = "job_name", nullable = false)
+    private String jobName;
+
+    // Failed tests with this signature over every ingested build of the job
+    @Column(name = "occurrences")
+    private Long occurrences;
+
+    @Column(name = "last_build_number")
+    private String lastBuildNumber;
+
+    @Column(name = "last_build_count")
+    private Integer lastBuildCount;
+
+    @Column(name = "last_build_at")
+    private LocalDateTime lastBuildAt;
+
+    @Column(name = "first_seen")
+    private LocalDateTime firstSeen;
+
+    @Column(name = "last_seen")
+    private LocalDateTime lastSeen;
+
+    // Constructors
+    public JenkinsFailureSignatureJob() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getSignatureId() {
+        return signatureId;
+    }
+
+    public void setSignatureId(Long signatureId) {
+        this.signatureId = signatureId;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public Long getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(Long occurrences) {
+        this.occurrences = occurrences;
+    }
+
+    public String getLastBuildNumber() {
+        return lastBuildNumber;
+    }
+
+    public void setLastBuildNumber(String lastBuildNumber) {
+        this.lastBuildNumber = lastBuildNumber;
+    }
+
+    public Integer getLastBuildCount() {
+        return lastBuildCount;
+    }
+
+    public void setLastBuildCount(Integer lastBuildCount) {
+        this.lastBuildCount = lastBuildCount;
+    }
+
+    public LocalDateTime getLastBuildAt() {
+        return lastBuildAt;
+    }
+
+    public void setLastBuildAt(LocalDateTime lastBuildAt) {
+        this.lastBuildAt = lastBuildAt;
+    }
+
+    public LocalDateTime getFirstSeen() {
+        return firstSeen;
+    }
+
+    public void setFirstSeen(LocalDateTime firstSeen) {
+        this.firstSeen = firstSeen;
+    }
+
+    public LocalDateTime getLastSeen() {
+        return lastSeen;
+    }
+
+    public void setLastSeen(LocalDateTime lastSeen) {
+        this.lastSeen = lastSeen;
+    }
+
+    @Override
+    public String toString() {
+        return "JenkinsFailureSignatureJob{" +
+                "signatureId=" + signatureId +
+                ", jobName='" + jobName + '\'' +
+                ", occurrences=" + occurrences +
+                ", lastBuildNumber='" + lastBuildNumber + '\'' +
+                ", lastBuildCount=" + lastBuildCount +
+                '}';
+    }
+}
@@ -0,0 +1,139 @@
+package com.qa.automation.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Status change of one test between a build and the previous build that ran it,
+ * detected at ingest. Names and failure text are not repeated here: the test is
+ * referenced by its identity and the build by its result row.
+ */
+@Entity
+@Table(name = "jenkins_regression_events", indexes = {
+        @Index(name = "idx_regression_events_job_timestamp", columnList = "job_name, build_timestamp"),
+        @Index(name = "idx_regression_events_result", columnList = "jenkins_result_id")
+})
+public class JenkinsRegressionEvent {
+
+    public static final String NEW_FAILURE = "NEW_FAILURE";
+    public static final String FIXED = "FIXED";
+    public static final String STILL_FAILING = "STILL_FAILING";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false)
+    private String jobName;
+
+    @Column(name = "jenkins_result_id", nullable = false)
+    private Long jenkinsResultId;
+
+    @Column(name = "build_number", length = 50)
+    private String buildNumber;
+
+    @Column(name = "test_identity_id", nullable = false)
+    private Long testIdentityId;
+
+    @Column(name = "event_type", nullable = false, length = 16)
+    private String eventType; // NEW_FAILURE, FIXED, STILL_FAILING
+
+    // Build the previous status comes from; null for a test that failed on its first run
+    @Column(name = "previous_build_number", length = 50)
+    private String previousBuildNumber;
+
+    // Consecutive failed runs up to and including this build
+    @Column(name = "failing_streak")
+    private Integer failingStreak;
+
+    // Time of the build, so backfilled builds sort where they ran rather than when they were ingested
+    @Column(name = "build_timestamp")
+    private LocalDateTime buildTimestamp;
+
+    // Constructors
+    public JenkinsRegressionEvent() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public Long getJenkinsResultId() {
+        return jenkinsResultId;
+    }
+
+    public void setJenkinsResultId(Long jenkinsResultId) {
+        this.jenkinsResultId = jenkinsResultId;
+    }
+
+    public String getBuildNumber() {
+        return buildNumber;
+    }
+
+    public void setBuildNumber(String buildNumber) {
+        this.buildNumber = buildNumber;
+    }
+
+    public Long getTestIdentityId() {
+        return testIdentityId;
+    }
+
+    public void setTestIdentityId(Long testIdentityId) {
+        this.testIdentityId = testIdentityId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getPreviousBuildNumber() {
+        return previousBuildNumber;
+    }
+
+    public void setPreviousBuildNumber(String previousBuildNumber) {
+        this.previousBuildNumber = previousBuildNumber;
+    }
+
+    public Integer getFailingStreak() {
+        return failingStreak;
+    }
+
+    public void setFailingStreak(Integer failingStreak) {
+        this.failingStreak = failingStreak;
+    }
+
+    public LocalDateTime getBuildTimestamp() {
+        return buildTimestamp;
+    }
+
+    public void setBuildTimestamp(LocalDateTime buildTimestamp) {
+        this.buildTimestamp = buildTimestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "JenkinsRegressionEvent{" +
+                "jobName='" + jobName + '\'' +
+                ", buildNumber='" + buildNumber + '\'' +
+                ", testIdentityId=" + testIdentityId +
+                ", eventType='" + eventType + '\'' +
+                ", failingStreak=" + failingStreak +
+                '}';
+    }
+}
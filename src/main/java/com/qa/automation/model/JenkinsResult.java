@@ -7,7 +7,9 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
-@Table(name = "jenkins_results")
+@Table(name = "jenkins_results", indexes = {
+        @Index(name = "idx_jenkins_results_job_timestamp", columnList = "job_name, build_timestamp")
+})
 public class JenkinsResult {
 
     @Id
@@ -306,27 +308,30 @@ public class JenkinsResult {
 
     // NEW: Helper method to determine frequency based on job name patterns
     public void inferJobFrequency() {
+        this.jobFrequency = inferFrequency(jobName);
+    }
+
+    public static String inferFrequency(String jobName) {
         if (jobName == null) {
-            this.jobFrequency = "Unknown";
-            return;
+            return "Unknown";
         }
 
         String lowerJobName = jobName.toLowerCase();
 
         if (lowerJobName.contains("hourly")) {
-            this.jobFrequency = "Hourly";
+            return "Hourly";
         } else if (lowerJobName.contains("daily") || lowerJobName.contains("nightly")) {
-            this.jobFrequency = "Daily";
+            return "Daily";
         } else if (lowerJobName.contains("weekly")) {
-            this.jobFrequency = "Weekly";
+            return "Weekly";
         } else if (lowerJobName.contains("monthly")) {
-            this.jobFrequency = "Monthly";
+            return "Monthly";
         } else if (lowerJobName.contains("manual") || lowerJobName.contains("ondemand") || lowerJobName.contains("trigger")) {
-            this.jobFrequency = "On Demand";
+            return "On Demand";
         } else if (lowerJobName.contains("continuous") || lowerJobName.contains("ci") || lowerJobName.contains("commit")) {
-            this.jobFrequency = "Continuous";
+            return "Continuous";
         } else {
-            this.jobFrequency = "Unknown";
+            return "Unknown";
         }
     }
 
@@ -0,0 +1,139 @@
+package com.qa.automation.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Last build seen for a Jenkins job. Sync compares the job's lastCompletedBuild
+ * against this row and skips all further downloads when nothing has changed.
+ */
+@Entity
+@Table(name = "jenkins_sync_watermarks")
+public class JenkinsSyncWatermark {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, unique = true)
+    private String jobName;
+
+    @Column(name = "last_build_number")
+    private String lastBuildNumber;
+
+    @Column(name = "last_build_status")
+    private String lastBuildStatus;
+
+    // Epoch millis as reported by Jenkins, so comparisons are exact
+    @Column(name = "last_build_timestamp")
+    private Long lastBuildTimestamp;
+
+    @Column(name = "last_synced_at")
+    private LocalDateTime lastSyncedAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public JenkinsSyncWatermark() {}
+
+    public JenkinsSyncWatermark(String jobName) {
+        this.jobName = jobName;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public String getLastBuildNumber() {
+        return lastBuildNumber;
+    }
+
+    public void setLastBuildNumber(String lastBuildNumber) {
+        this.lastBuildNumber = lastBuildNumber;
+    }
+
+    public String getLastBuildStatus() {
+        return lastBuildStatus;
+    }
+
+    public void setLastBuildStatus(String lastBuildStatus) {
+        this.lastBuildStatus = lastBuildStatus;
+    }
+
+    public Long getLastBuildTimestamp() {
+        return lastBuildTimestamp;
+    }
+
+    public void setLastBuildTimestamp(Long lastBuildTimestamp) {
+        this.lastBuildTimestamp = lastBuildTimestamp;
+    }
+
+    public LocalDateTime getLastSyncedAt() {
+        return lastSyncedAt;
+    }
+
+    public void setLastSyncedAt(LocalDateTime lastSyncedAt) {
+        this.lastSyncedAt = lastSyncedAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    // Utility methods
+    public boolean matches(String buildNumber, String buildStatus, long buildTimestamp) {
+        return buildNumber != null && buildNumber.equals(lastBuildNumber) &&
+                buildStatus != null && buildStatus.equals(lastBuildStatus) &&
+                lastBuildTimestamp != null && lastBuildTimestamp == buildTimestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "JenkinsSyncWatermark{" +
+                "jobName='" + jobName + '\'' +
+                ", lastBuildNumber='" + lastBuildNumber + '\'' +
+                ", lastBuildStatus='" + lastBuildStatus + '\'' +
+                ", lastBuildTimestamp=" + lastBuildTimestamp +
+                '}';
+    }
+}
@@ -1,21 +1,37 @@
 package com.qa.automation.model;
 
 import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "jenkins_test_cases")
+@Table(name = "jenkins_test_cases", indexes = {
+        @Index(name = "idx_jenkins_test_cases_result_identity", columnList = "jenkins_result_id, test_identity_id")
+})
 public class JenkinsTestCase {
 
+    // Pooled sequence ids let Hibernate batch inserts; IDENTITY forces one round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "jenkins_test_cases_seq")
+    @SequenceGenerator(name = "jenkins_test_cases_seq", sequenceName = "jenkins_test_cases_seq", allocationSize = 500)
     private Long id;
 
-    @Column(nullable = false)
+    // Class and method names live once in jenkins_test_identities
+    @Column(name = "test_identity_id")
+    private Long testIdentityId;
+
+    // Read-only view of test_identity_id; readers JOIN FETCH it, writers only set the id
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "test_identity_id", insertable = false, updatable = false)
+    @JsonIgnore
+    private JenkinsTestIdentity testIdentity;
+
+    // Names as parsed, until the row is written or when it was loaded without its identity
+    @Transient
     private String testName;
 
-    @Column(name = "class_name")
+    @Transient
     private String className;
 
     @Column(nullable = false)
@@ -24,10 +40,15 @@ public class JenkinsTestCase {
     @Column(name = "duration")
     private Double duration; // Test execution duration in seconds
 
-    @Column(name = "error_message", columnDefinition = "TEXT")
+    // Message and stack trace are stored once, compressed, in jenkins_failure_details
+    @Column(name = "failure_detail_id")
+    private Long failureDetailId;
+
+    // Failure text as parsed; not loaded with the row (see JenkinsFailureDetailService.load)
+    @Transient
     private String errorMessage;
 
-    @Column(name = "stack_trace", columnDefinition = "TEXT")
+    @Transient
     private String stackTrace;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -61,8 +82,22 @@ public class JenkinsTestCase {
         this.id = id;
     }
 
+    public Long getTestIdentityId() {
+        return testIdentityId;
+    }
+
+    public void setTestIdentityId(Long testIdentityId) {
+        this.testIdentityId = testIdentityId;
+    }
+
+    public void setTestIdentity(JenkinsTestIdentity testIdentity) {
+        this.testIdentityId = testIdentity.getId();
+        this.className = testIdentity.getClassName();
+        this.testName = testIdentity.getTestName();
+    }
+
     public String getTestName() {
-        return testName;
+        return testIdentity != null ? testIdentity.getTestName() : testName;
     }
 
     public void setTestName(String testName) {
@@ -70,7 +105,7 @@ public class JenkinsTestCase {
     }
 
     public String getClassName() {
-        return className;
+        return testIdentity != null ? testIdentity.getClassName() : className;
     }
 
     public void setClassName(String className) {
@@ -93,6 +128,14 @@ public class JenkinsTestCase {
         this.duration = duration;
     }
 
+    public Long getFailureDetailId() {
+        return failureDetailId;
+    }
+
+    public void setFailureDetailId(Long failureDetailId) {
+        this.failureDetailId = failureDetailId;
+    }
+
     public String getErrorMessage() {
         return errorMessage;
     }
@@ -0,0 +1,116 @@
+package com.qa.automation.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * One row per distinct test (class + method). Per-build rows in jenkins_test_cases
+ * reference it by id instead of repeating both names. The id is a 64-bit hash of
+ * the names, so ingest can compute it without a lookup; the rare collision is
+ * resolved by probing the next id.
+ */
+@Entity
+@Table(name = "jenkins_test_identities")
+@BatchSize(size = 500) // lazy loads through JenkinsResult.testCases resolve identities 500 at a time
+public class JenkinsTestIdentity {
+
+    // Column sizes in characters; ingest shortens longer names to fit, see JenkinsTestIdentityService
+    public static final int MAX_CLASS_NAME_LENGTH = 512;
+    public static final int MAX_TEST_NAME_LENGTH = 1024;
+
+    @Id
+    private Long id;
+
+    @Column(name = "class_name", nullable = false, length = MAX_CLASS_NAME_LENGTH)
+    private String className;
+
+    @Column(name = "test_name", nullable = false, length = MAX_TEST_NAME_LENGTH)
+    private String testName;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public JenkinsTestIdentity() {}
+
+    public JenkinsTestIdentity(Long id, String className, String testName) {
+        this.id = id;
+        this.className = className;
+        this.testName = testName;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    public String getTestName() {
+        return testName;
+    }
+
+    public void setTestName(String testName) {
+        this.testName = testName;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    // Utility methods
+    public boolean matches(String className, String testName) {
+        return this.className.equals(className) && this.testName.equals(testName);
+    }
+
+    /**
+     * Home id of a test: 64-bit FNV-1a over the UTF-8 names, finished with the
+     * murmur3 mixer so similar names spread across the whole range.
+     */
+    public static long hashOf(String className, String testName) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : className.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        hash = (hash ^ 0x1f) * 0x100000001b3L; // separator, so ("ab","c") != ("a","bc")
+        for (byte b : testName.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "JenkinsTestIdentity{" +
+                "id=" + id +
+                ", className='" + className + '\'' +
+                ", testName='" + testName + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,19 @@
+package com.qa.automation.repository;
+
+import com.qa.automation.model.JenkinsBackfillCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface JenkinsBackfillCheckpointRepository extends JpaRepository<JenkinsBackfillCheckpoint, Long> {
+
+    Optional<JenkinsBackfillCheckpoint> findByJobName(String jobName);
+
+    // Backfills that were interrupted or failed and can be picked up again
+    @Query("SELECT cp FROM JenkinsBackfillCheckpoint cp WHERE cp.status <> 'COMPLETED' ORDER BY cp.jobName")
+    List<JenkinsBackfillCheckpoint> findUnfinished();
+}
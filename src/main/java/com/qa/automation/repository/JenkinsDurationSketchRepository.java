@@ -0,0 +1,34 @@
+package com.qa.automation.repository;
+
+import com.qa.automation.model.JenkinsDurationSketch;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface JenkinsDurationSketchRepository extends JpaRepository<JenkinsDurationSketch, Long> {
+
+    Optional<JenkinsDurationSketch> findByJobNameAndTestIdentityId(String jobName, Long testIdentityId);
+
+    @Query("SELECT ds FROM JenkinsDurationSketch ds WHERE ds.jobName = :jobName AND ds.p50 IS NOT NULL ORDER BY ds.p50 DESC")
+    List<JenkinsDurationSketch> findSlowestByMedian(@Param("jobName") String jobName, Pageable pageable);
+
+    @Query("SELECT ds FROM JenkinsDurationSketch ds WHERE ds.jobName = :jobName AND ds.p95 IS NOT NULL ORDER BY ds.p95 DESC")
+    List<JenkinsDurationSketch> findSlowestByP95(@Param("jobName") String jobName, Pageable pageable);
+
+    // Tests that ran in the job's newest build and took far longer than their p95 before it
+    @Query("SELECT ds FROM JenkinsDurationSketch ds WHERE ds.jobName = :jobName AND ds.sampleCount >= :minSamples " +
+            "AND ds.lastDuration > ds.baselineP95 * :factor AND ds.lastDuration - ds.baselineP95 >= :minSeconds " +
+            "AND ds.lastBuildAt = (SELECT MAX(latest.lastBuildAt) FROM JenkinsDurationSketch latest WHERE latest.jobName = :jobName) " +
+            "ORDER BY (ds.lastDuration - ds.baselineP95) DESC")
+    List<JenkinsDurationSketch> findDurationRegressions(@Param("jobName") String jobName,
+                                                         @Param("minSamples") long minSamples,
+                                                         @Param("factor") double factor,
+                                                         @Param("minSeconds") double minSeconds,
+                                                         Pageable pageable);
+}
@@ -0,0 +1,18 @@
+package com.qa.automation.repository;
+
+import com.qa.automation.model.JenkinsFailureDetail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface JenkinsFailureDetailRepository extends JpaRepository<JenkinsFailureDetail, Long> {
+
+    // Digests only, so probing never pulls the compressed content
+    @Query("SELECT fd.id, fd.contentSha256 FROM JenkinsFailureDetail fd WHERE fd.id IN :ids")
+    List<Object[]> findDigestsByIdIn(@Param("ids") Collection<Long> ids);
+}
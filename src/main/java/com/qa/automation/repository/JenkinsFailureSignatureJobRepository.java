@@ -0,0 +1,29 @@
+package com.qa.automation.repository;
+
+import com.qa.automation.model.JenkinsFailureSignatureJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface JenkinsFailureSignatureJobRepository extends JpaRepository<JenkinsFailureSignatureJob, Long> {
+
+    // Per-job rows whose last build is that job's latest build
+    String IN_LATEST_BUILD = "sj.lastBuildCount > 0 AND EXISTS (SELECT jr.id FROM JenkinsResult jr " +
+            "WHERE jr.jobName = sj.jobName AND jr.buildNumber = sj.lastBuildNumber AND " +
+            JenkinsResultRepository.IS_LATEST_BUILD + ")";
+
+    // [signatureId, failing tests, affected jobs] across the latest build of every job
+    @Query("SELECT sj.signatureId, SUM(sj.lastBuildCount), COUNT(sj) FROM JenkinsFailureSignatureJob sj " +
+            "WHERE " + IN_LATEST_BUILD + " GROUP BY sj.signatureId ORDER BY SUM(sj.lastBuildCount) DESC")
+    List<Object[]> findTopSignaturesInLatestBuilds(Pageable pageable);
+
+    @Query("SELECT sj FROM JenkinsFailureSignatureJob sj WHERE " + IN_LATEST_BUILD + " AND sj.signatureId IN :signatureIds")
+    List<JenkinsFailureSignatureJob> findInLatestBuildsBySignatureIdIn(@Param("signatureIds") List<Long> signatureIds);
+
+    List<JenkinsFailureSignatureJob> findBySignatureIdOrderByLastSeenDesc(Long signatureId);
+}
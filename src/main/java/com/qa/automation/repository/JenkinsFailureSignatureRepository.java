@@ -0,0 +1,17 @@
+package com.qa.automation.repository;
+
+import com.qa.automation.model.JenkinsFailureSignature;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface JenkinsFailureSignatureRepository extends JpaRepository<JenkinsFailureSignature, Long> {
+
+    @Query("SELECT fs.fingerprintSha256, fs.id FROM JenkinsFailureSignature fs WHERE fs.fingerprintSha256 IN :fingerprints")
+    List<Object[]> findIdsByFingerprintIn(@Param("fingerprints") Collection<String> fingerprints);
+}
@@ -0,0 +1,27 @@
+package com.qa.automation.repository;
+
+import com.qa.automation.model.JenkinsRegressionEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface JenkinsRegressionEventRepository extends JpaRepository<JenkinsRegressionEvent, Long> {
+
+    // Newest first; every filter is optional
+    @Query("SELECT e FROM JenkinsRegressionEvent e WHERE (:jobName IS NULL OR e.jobName = :jobName) " +
+            "AND (:buildNumber IS NULL OR e.buildNumber = :buildNumber) " +
+            "AND (:eventType IS NULL OR e.eventType = :eventType) " +
+            "AND (:since IS NULL OR e.buildTimestamp >= :since) " +
+            "ORDER BY e.buildTimestamp DESC, e.id DESC")
+    List<JenkinsRegressionEvent> findEvents(@Param("jobName") String jobName,
+                                            @Param("buildNumber") String buildNumber,
+                                            @Param("eventType") String eventType,
+                                            @Param("since") LocalDateTime since,
+                                            Pageable pageable);
+}
@@ -6,20 +6,24 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface JenkinsResultRepository extends JpaRepository<JenkinsResult, Long> {
 
+    // A job's latest result is its newest build, not its newest row: backfilled history is inserted after it
+    String IS_LATEST_BUILD = "NOT EXISTS (SELECT newer.id FROM JenkinsResult newer WHERE newer.jobName = jr.jobName " +
+            "AND (newer.buildTimestamp > jr.buildTimestamp " +
+            "OR (newer.buildTimestamp = jr.buildTimestamp AND newer.id > jr.id)))";
+
     // Find latest result for a specific job
     @Query("SELECT jr FROM JenkinsResult jr WHERE jr.jobName = :jobName ORDER BY jr.buildTimestamp DESC")
     List<JenkinsResult> findLatestByJobName(@Param("jobName") String jobName);
 
     // Find latest results for all jobs
-    @Query("SELECT jr FROM JenkinsResult jr WHERE jr.id IN " +
-            "(SELECT MAX(jr2.id) FROM JenkinsResult jr2 GROUP BY jr2.jobName) " +
-            "ORDER BY jr.jobName")
+    @Query("SELECT jr FROM JenkinsResult jr WHERE " + IS_LATEST_BUILD + " ORDER BY jr.jobName")
     List<JenkinsResult> findLatestResultsForAllJobs();
 
     // Check if job exists
@@ -28,6 +32,11 @@ public interface JenkinsResultRepository extends JpaRepository<JenkinsResult, Lo
     // Find by job name and build number
     Optional<JenkinsResult> findByJobNameAndBuildNumber(String jobName, String buildNumber);
 
+    // Which of the given builds are already stored
+    @Query("SELECT jr.buildNumber FROM JenkinsResult jr WHERE jr.jobName = :jobName AND jr.buildNumber IN :buildNumbers")
+    List<String> findStoredBuildNumbers(@Param("jobName") String jobName,
+                                        @Param("buildNumbers") Collection<String> buildNumbers);
+
     // Get all unique job names
     @Query("SELECT DISTINCT jr.jobName FROM JenkinsResult jr ORDER BY jr.jobName")
     List<String> findAllJobNames();
@@ -37,15 +46,12 @@ public interface JenkinsResultRepository extends JpaRepository<JenkinsResult, Lo
     Long countByBuildStatus(@Param("status") String status);
 
     // Get total test counts
-    @Query("SELECT COALESCE(SUM(jr.totalTests), 0) FROM JenkinsResult jr WHERE jr.id IN " +
-            "(SELECT MAX(jr2.id) FROM JenkinsResult jr2 GROUP BY jr2.jobName)")
+    @Query("SELECT COALESCE(SUM(jr.totalTests), 0) FROM JenkinsResult jr WHERE " + IS_LATEST_BUILD)
     Long getTotalTestsFromLatestBuilds();
 
-    @Query("SELECT COALESCE(SUM(jr.passedTests), 0) FROM JenkinsResult jr WHERE jr.id IN " +
-            "(SELECT MAX(jr2.id) FROM JenkinsResult jr2 GROUP BY jr2.jobName)")
+    @Query("SELECT COALESCE(SUM(jr.passedTests), 0) FROM JenkinsResult jr WHERE " + IS_LATEST_BUILD)
     Long getTotalPassedTestsFromLatestBuilds();
 
-    @Query("SELECT COALESCE(SUM(jr.failedTests), 0) FROM JenkinsResult jr WHERE jr.id IN " +
-            "(SELECT MAX(jr2.id) FROM JenkinsResult jr2 GROUP BY jr2.jobName)")
+    @Query("SELECT COALESCE(SUM(jr.failedTests), 0) FROM JenkinsResult jr WHERE " + IS_LATEST_BUILD)
     Long getTotalFailedTestsFromLatestBuilds();
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.qa.automation.repository;
+
+import com.qa.automation.model.JenkinsSyncWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface JenkinsSyncWatermarkRepository extends JpaRepository<JenkinsSyncWatermark, Long> {
+
+    Optional<JenkinsSyncWatermark> findByJobName(String jobName);
+}
@@ -11,29 +11,40 @@ import java.util.List;
 @Repository
 public interface JenkinsTestCaseRepository extends JpaRepository<JenkinsTestCase, Long> {
 
+    // Readers fetch the test identity with the row, so names resolve without a query per row
+    String WITH_IDENTITY = "SELECT jtc FROM JenkinsTestCase jtc LEFT JOIN FETCH jtc.testIdentity ";
+
     // Find test cases by Jenkins result ID
-    List<JenkinsTestCase> findByJenkinsResultId(Long jenkinsResultId);
+    @Query(WITH_IDENTITY + "WHERE jtc.jenkinsResult.id = :jenkinsResultId")
+    List<JenkinsTestCase> findByJenkinsResultId(@Param("jenkinsResultId") Long jenkinsResultId);
+
+    // Stable ordering so repeated (className, testName) pairs line up across resyncs
+    @Query(WITH_IDENTITY + "WHERE jtc.jenkinsResult.id = :jenkinsResultId ORDER BY jtc.id ASC")
+    List<JenkinsTestCase> findByJenkinsResultIdOrderByIdAsc(@Param("jenkinsResultId") Long jenkinsResultId);
 
     // Find test cases by status
-    List<JenkinsTestCase> findByStatus(String status);
+    @Query(WITH_IDENTITY + "WHERE jtc.status = :status")
+    List<JenkinsTestCase> findByStatus(@Param("status") String status);
 
     // Find test cases by Jenkins result ID and status
-    List<JenkinsTestCase> findByJenkinsResultIdAndStatus(Long jenkinsResultId, String status);
+    @Query(WITH_IDENTITY + "WHERE jtc.jenkinsResult.id = :jenkinsResultId AND jtc.status = :status")
+    List<JenkinsTestCase> findByJenkinsResultIdAndStatus(@Param("jenkinsResultId") Long jenkinsResultId,
+                                                         @Param("status") String status);
 
     // Count test cases by status for a specific Jenkins result
     Long countByJenkinsResultIdAndStatus(Long jenkinsResultId, String status);
 
     // Find failed test cases with error messages
-    @Query("SELECT jtc FROM JenkinsTestCase jtc WHERE jtc.status = 'FAILED' AND jtc.jenkinsResult.id = :resultId")
+    @Query(WITH_IDENTITY + "WHERE jtc.status = 'FAILED' AND jtc.jenkinsResult.id = :resultId")
     List<JenkinsTestCase> findFailedTestCasesByResultId(@Param("resultId") Long resultId);
 
     // Search test cases by name
-    @Query("SELECT jtc FROM JenkinsTestCase jtc WHERE jtc.testName LIKE %:keyword% OR jtc.className LIKE %:keyword%")
+    @Query(WITH_IDENTITY + "WHERE jtc.testIdentity.testName LIKE %:keyword% OR jtc.testIdentity.className LIKE %:keyword%")
     List<JenkinsTestCase> searchByKeyword(@Param("keyword") String keyword);
 
     // Get test case statistics by job
     @Query("SELECT jtc.status, COUNT(jtc) FROM JenkinsTestCase jtc WHERE jtc.jenkinsResult.jobName = :jobName " +
-            "AND jtc.jenkinsResult.id = (SELECT MAX(jr.id) FROM JenkinsResult jr WHERE jr.jobName = :jobName) " +
+            "AND jtc.jenkinsResult.buildTimestamp = (SELECT MAX(jr.buildTimestamp) FROM JenkinsResult jr WHERE jr.jobName = :jobName) " +
             "GROUP BY jtc.status")
     List<Object[]> getTestCaseStatsByJobName(@Param("jobName") String jobName);
 }
\ No newline at end of file
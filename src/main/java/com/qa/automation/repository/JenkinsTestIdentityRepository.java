@@ -0,0 +1,9 @@
+package com.qa.automation.repository;
+
+import com.qa.automation.model.JenkinsTestIdentity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JenkinsTestIdentityRepository extends JpaRepository<JenkinsTestIdentity, Long> {
+}
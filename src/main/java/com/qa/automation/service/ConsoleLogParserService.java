@@ -0,0 +1,180 @@
+package com.qa.automation.service;
+
+import com.qa.automation.model.JenkinsResult;
+import com.qa.automation.model.JenkinsTestCase;
+import org.apache.hc.core5.http.io.EofSensorInputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts test results from a build's consoleText by scanning the HTTP stream line
+ * by line, so the log is never materialised as a String.
+ */
+@Service
+public class ConsoleLogParserService {
+
+    // Patterns like: "testcases.AccountReceivableIT.methodName ... PASSED"
+    private static final Pattern TEST_IDENTIFIER = Pattern.compile("testcases\\.\\S*");
+
+    // Longer lines are cut; test result lines are far shorter than this
+    private static final int MAX_LINE_CHARS = 8192;
+
+    @Autowired
+    private JenkinsApiClient jenkinsApiClient;
+
+    @Value("${jenkins.url:}")
+    private String jenkinsUrl;
+
+    // Stop reading a console log after this many bytes
+    @Value("${jenkins.console.max-bytes:67108864}")
+    private long maxConsoleBytes;
+
+    /**
+     * Stream the console log of a build and emit one test case per recognised line.
+     * The test cases are attached to jenkinsResult, which may be null for read-only callers.
+     *
+     * @return number of test cases emitted
+     */
+    public int extractTestCases(String jobName, String buildNumber, JenkinsResult jenkinsResult,
+                                Consumer<JenkinsTestCase> sink) {
+        String consoleUrl = JenkinsUrls.build(jenkinsUrl, jobName, buildNumber) + "/consoleText";
+
+        try {
+            Integer count = jenkinsApiClient.stream(consoleUrl, response -> scan(response.getBody(), jenkinsResult, sink, jobName));
+            return count != null ? count : 0;
+        } catch (Exception e) {
+            System.err.println("Error parsing console log: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private int scan(InputStream body, JenkinsResult jenkinsResult, Consumer<JenkinsTestCase> sink,
+                     String jobName) throws IOException {
+        BudgetedInputStream input = new BudgetedInputStream(body, maxConsoleBytes);
+        Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+        Matcher identifier = TEST_IDENTIFIER.matcher("");
+        StringBuilder line = new StringBuilder(256);
+        char[] buffer = new char[8192];
+        int count = 0;
+        int read;
+
+        while ((read = reader.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                char c = buffer[i];
+                if (c == '\n') {
+                    count += emitIfTestLine(line, identifier, jenkinsResult, sink);
+                    line.setLength(0);
+                } else if (line.length() < MAX_LINE_CHARS) {
+                    line.append(c);
+                }
+            }
+        }
+        count += emitIfTestLine(line, identifier, jenkinsResult, sink);
+
+        if (input.isExhausted()) {
+            System.out.println("Console log for " + jobName + " exceeded " + maxConsoleBytes +
+                    " bytes; stopped reading after " + count + " test cases");
+        }
+        return count;
+    }
+
+    private int emitIfTestLine(StringBuilder line, Matcher identifier, JenkinsResult jenkinsResult,
+                               Consumer<JenkinsTestCase> sink) {
+        if (!identifier.reset(line).find()) {
+            return 0;
+        }
+        String status = statusOf(line);
+        if (status == null) {
+            return 0;
+        }
+
+        JenkinsTestCase testCase = new JenkinsTestCase();
+        testCase.setJenkinsResult(jenkinsResult);
+        testCase.setStatus(status);
+
+        // Split the identifier into class and method name
+        String fullTestName = identifier.group();
+        int lastDot = fullTestName.lastIndexOf('.');
+        testCase.setClassName(fullTestName.substring(0, lastDot));
+        testCase.setTestName(fullTestName.substring(lastDot + 1));
+
+        sink.accept(testCase);
+        return 1;
+    }
+
+    private String statusOf(StringBuilder line) {
+        if (line.indexOf("PASSED") >= 0) {
+            return "PASSED";
+        } else if (line.indexOf("FAILED") >= 0) {
+            return "FAILED";
+        } else if (line.indexOf("SKIPPED") >= 0) {
+            return "SKIPPED";
+        }
+        return null;
+    }
+
+    /**
+     * Reports end-of-stream once the byte budget is spent, so a runaway log cannot
+     * keep the scanner reading indefinitely. Reaching the budget also aborts the
+     * underlying HttpClient stream: closing the response would otherwise consume
+     * the rest of the entity to reuse the connection, downloading the whole log anyway.
+     */
+    static class BudgetedInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+        private boolean exhausted;
+
+        BudgetedInputStream(InputStream in, long budget) {
+            this.in = in;
+            this.remaining = budget;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                exhausted = true;
+                return -1;
+            }
+            int b = in.read();
+            if (b != -1) {
+                consumed(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                exhausted = true;
+                return -1;
+            }
+            int n = in.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                consumed(n);
+            }
+            return n;
+        }
+
+        boolean isExhausted() {
+            return exhausted;
+        }
+
+        private void consumed(int n) throws IOException {
+            remaining -= n;
+            if (remaining <= 0 && in instanceof EofSensorInputStream sensor) {
+                // Drops the connection instead of draining it back into the pool
+                sensor.abort();
+            }
+        }
+    }
+}
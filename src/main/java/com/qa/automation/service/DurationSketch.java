@@ -0,0 +1,146 @@
+package com.qa.automation.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Quantile sketch for test durations in seconds. Values fall into logarithmic buckets
+ * whose width is 2% of their value (DDSketch), so any quantile is within 2% of the true
+ * one regardless of how many durations were added. A test that always takes about the
+ * same time occupies a handful of buckets and encodes to a few dozen bytes.
+ */
+final class DurationSketch {
+
+    private static final double RELATIVE_ACCURACY = 0.02;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    // Durations below a millisecond are counted as zero
+    private static final double MIN_VALUE = 0.001;
+    // A millisecond to a day takes about 460 buckets; past the cap the lowest are merged, leaving upper quantiles intact
+    private static final int MAX_BUCKETS = 512;
+    private static final byte FORMAT_VERSION = 1;
+
+    private long zeroCount;
+    private int size;
+    private int[] indexes = new int[8];
+    private long[] counts = new long[8];
+
+    void add(double seconds) {
+        if (!(seconds >= MIN_VALUE)) {
+            zeroCount++;
+            return;
+        }
+        int index = (int) Math.ceil(Math.log(seconds) / LOG_GAMMA);
+        int position = Arrays.binarySearch(indexes, 0, size, index);
+        if (position >= 0) {
+            counts[position]++;
+            return;
+        }
+        insertBucket(-position - 1, index, 1);
+        if (size > MAX_BUCKETS) {
+            counts[1] += counts[0];
+            System.arraycopy(indexes, 1, indexes, 0, size - 1);
+            System.arraycopy(counts, 1, counts, 0, size - 1);
+            size--;
+        }
+    }
+
+    long getCount() {
+        long count = zeroCount;
+        for (int i = 0; i < size; i++) {
+            count += counts[i];
+        }
+        return count;
+    }
+
+    /**
+     * Duration at quantile q (0..1), or null when nothing was added.
+     */
+    Double quantile(double q) {
+        long count = getCount();
+        if (count == 0) {
+            return null;
+        }
+        long rank = (long) Math.floor(Math.max(0, Math.min(1, q)) * (count - 1));
+        if (rank < zeroCount) {
+            return 0.0;
+        }
+        long seen = zeroCount;
+        for (int i = 0; i < size; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return 2 * Math.pow(GAMMA, indexes[i]) / (GAMMA + 1);
+            }
+        }
+        return 2 * Math.pow(GAMMA, indexes[size - 1]) / (GAMMA + 1);
+    }
+
+    // [version][zero count][bucket count] then per bucket [index delta][count], all as varints
+    byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + size * 3);
+        out.write(FORMAT_VERSION);
+        writeVarLong(out, zeroCount);
+        writeVarLong(out, size);
+        int previous = 0;
+        for (int i = 0; i < size; i++) {
+            long delta = indexes[i] - previous;
+            writeVarLong(out, (delta << 1) ^ (delta >> 63));
+            writeVarLong(out, counts[i]);
+            previous = indexes[i];
+        }
+        return out.toByteArray();
+    }
+
+    static DurationSketch decode(byte[] encoded) {
+        DurationSketch sketch = new DurationSketch();
+        if (encoded == null || encoded.length == 0) {
+            return sketch;
+        }
+        ByteBuffer in = ByteBuffer.wrap(encoded);
+        if (in.get() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unknown duration sketch format");
+        }
+        sketch.zeroCount = readVarLong(in);
+        int buckets = (int) readVarLong(in);
+        int index = 0;
+        for (int i = 0; i < buckets; i++) {
+            long zigzag = readVarLong(in);
+            index += (int) ((zigzag >>> 1) ^ -(zigzag & 1));
+            sketch.insertBucket(i, index, readVarLong(in));
+        }
+        return sketch;
+    }
+
+    private void insertBucket(int position, int index, long count) {
+        if (size == indexes.length) {
+            indexes = Arrays.copyOf(indexes, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        System.arraycopy(indexes, position, indexes, position + 1, size - position);
+        System.arraycopy(counts, position, counts, position + 1, size - position);
+        indexes[position] = index;
+        counts[position] = count;
+        size++;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,253 @@
+package com.qa.automation.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single entry point for Jenkins HTTP calls. Authentication, pooling, timeouts and
+ * compression are configured once in JenkinsConfig.
+ *
+ * JSON responses that carry an ETag or Last-Modified validator are kept in a
+ * size-bounded LRU cache. Later requests for the same URL are sent conditionally,
+ * and a 304 returns the cached parsed document without downloading or parsing it.
+ * Cached documents are shared, so callers must treat them as read-only.
+ *
+ * Inside a fetch scope (one job sync) each URL is fetched at most once. Repeat
+ * requests are answered from the scope, including HTTP error responses, so a
+ * missing report is not asked for twice.
+ */
+@Service
+public class JenkinsApiClient {
+
+    @Autowired
+    @Qualifier("jenkinsRestTemplate")
+    private RestTemplate restTemplate;
+
+    @Value("${jenkins.http.cache.max-entries:1000}")
+    private int cacheMaxEntries;
+
+    // Bound on the summed size of the cached response bodies
+    @Value("${jenkins.http.cache.max-bytes:67108864}")
+    private long cacheMaxBytes;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ThreadLocal<FetchScope> currentScope = new ThreadLocal<>();
+
+    /**
+     * Documents fetched by the current thread since the scope was opened. Closing
+     * the scope releases them.
+     */
+    public class FetchScope implements AutoCloseable {
+        private final Map<String, Object> documents = new HashMap<>();
+        private int savedFetches;
+
+        public int getSavedFetches() {
+            return savedFetches;
+        }
+
+        @Override
+        public void close() {
+            currentScope.remove();
+        }
+    }
+
+    private static class CachedResponse {
+        private final String etag;
+        private final String lastModified;
+        private final JsonNode body;
+        private final long bytes;
+
+        CachedResponse(String etag, String lastModified, JsonNode body, long bytes) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+            this.bytes = bytes;
+        }
+    }
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, CachedResponse> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedBytes;
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong uncacheable = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    public ResponseEntity<String> get(String url) {
+        return restTemplate.getForEntity(url, String.class);
+    }
+
+    public FetchScope openFetchScope() {
+        FetchScope scope = new FetchScope();
+        currentScope.set(scope);
+        return scope;
+    }
+
+    /**
+     * GET a JSON document. The URL is a URI template, so values holding reserved
+     * characters (such as a tree=...{from,to} range) go in as uriVariables.
+     */
+    public JsonNode getJson(String url, Object... uriVariables) throws IOException {
+        return getJson(restTemplate.getUriTemplateHandler().expand(url, uriVariables));
+    }
+
+    public JsonNode getJson(URI uri) throws IOException {
+        String url = uri.toString();
+        FetchScope scope = currentScope.get();
+        if (scope == null) {
+            return fetchJson(uri);
+        }
+
+        if (scope.documents.containsKey(url)) {
+            scope.savedFetches++;
+            Object document = scope.documents.get(url);
+            if (document instanceof RestClientResponseException) {
+                throw (RestClientResponseException) document;
+            }
+            return (JsonNode) document;
+        }
+        try {
+            JsonNode document = fetchJson(uri);
+            scope.documents.put(url, document);
+            return document;
+        } catch (RestClientResponseException e) {
+            // Jenkins answered with an error status; timeouts and I/O errors are not remembered
+            scope.documents.put(url, e);
+            throw e;
+        }
+    }
+
+    private JsonNode fetchJson(URI uri) throws IOException {
+        String url = uri.toString();
+        CachedResponse cached = cacheMaxEntries > 0 ? lookup(url) : null;
+
+        HttpHeaders headers = new HttpHeaders();
+        if (cached != null) {
+            if (cached.etag != null) {
+                headers.setIfNoneMatch(cached.etag);
+            }
+            if (cached.lastModified != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified);
+            }
+        }
+
+        ResponseEntity<String> response = restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        if (cached != null && response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+            cacheHits.incrementAndGet();
+            bytesSaved.addAndGet(cached.bytes);
+            return cached.body;
+        }
+
+        String rawBody = response.getBody();
+        JsonNode body = objectMapper.readTree(rawBody);
+        String etag = response.getHeaders().getETag();
+        String lastModified = response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+
+        if (cacheMaxEntries <= 0) {
+            return body;
+        }
+        if (etag == null && lastModified == null) {
+            uncacheable.incrementAndGet();
+            if (cached != null) {
+                remove(url);
+            }
+            return body;
+        }
+        cacheMisses.incrementAndGet();
+        store(url, new CachedResponse(etag, lastModified, body, rawBody != null ? rawBody.length() : 0));
+        return body;
+    }
+
+    /**
+     * Hand the response body to the extractor as a stream; the body is never
+     * buffered in memory.
+     */
+    public <T> T stream(String url, ResponseExtractor<T> extractor) {
+        return restTemplate.execute(url, HttpMethod.GET, null, extractor);
+    }
+
+    public boolean exists(String url) {
+        try {
+            return restTemplate.headForHeaders(url) != null;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long hits = cacheHits.get();
+        long misses = cacheMisses.get();
+        synchronized (cache) {
+            stats.put("entries", cache.size());
+            stats.put("cachedBytes", cachedBytes);
+        }
+        stats.put("maxEntries", cacheMaxEntries);
+        stats.put("maxBytes", cacheMaxBytes);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("uncacheable", uncacheable.get());
+        stats.put("evictions", evictions.get());
+        stats.put("bytesSaved", bytesSaved.get());
+        stats.put("hitRate", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        return stats;
+    }
+
+    private CachedResponse lookup(String url) {
+        synchronized (cache) {
+            return cache.get(url);
+        }
+    }
+
+    private void remove(String url) {
+        synchronized (cache) {
+            CachedResponse removed = cache.remove(url);
+            if (removed != null) {
+                cachedBytes -= removed.bytes;
+            }
+        }
+    }
+
+    private void store(String url, CachedResponse entry) {
+        if (entry.bytes > cacheMaxBytes) {
+            return;
+        }
+        synchronized (cache) {
+            CachedResponse previous = cache.put(url, entry);
+            if (previous != null) {
+                cachedBytes -= previous.bytes;
+            }
+            cachedBytes += entry.bytes;
+
+            Iterator<Map.Entry<String, CachedResponse>> eldest = cache.entrySet().iterator();
+            while ((cache.size() > cacheMaxEntries || cachedBytes > cacheMaxBytes) && eldest.hasNext()) {
+                cachedBytes -= eldest.next().getValue().bytes;
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.qa.automation.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.qa.automation.dto.JenkinsJobSnapshot;
+import com.qa.automation.dto.JenkinsSyncReport;
+import com.qa.automation.dto.JenkinsSyncReport.JobStatus;
+import com.qa.automation.model.JenkinsBackfillCheckpoint;
+import com.qa.automation.model.JenkinsResult;
+import com.qa.automation.repository.JenkinsBackfillCheckpointRepository;
+import com.qa.automation.repository.JenkinsResultRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Historical build backfill. For each job, builds are listed newest first in pages
+ * of allBuilds{from,to}, builds already stored are skipped, and each page is written
+ * as one batch. A checkpoint per job is saved after every page, so a backfill that
+ * is interrupted (shutdown, failure) resumes where it stopped.
+ */
+@Service
+public class JenkinsBackfillService {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int RECENT_RUNS_KEPT = 20;
+
+    @Autowired
+    private JenkinsService jenkinsService;
+
+    @Autowired
+    private JenkinsApiClient jenkinsApiClient;
+
+    @Autowired
+    private JenkinsResultRepository jenkinsResultRepository;
+
+    @Autowired
+    private JenkinsBackfillCheckpointRepository checkpointRepository;
+
+    @Value("${jenkins.url:}")
+    private String jenkinsUrl;
+
+    // Jobs backfilled concurrently
+    @Value("${jenkins.backfill.max-concurrency:4}")
+    private int maxConcurrency;
+
+    private ExecutorService backfillExecutor;
+    private final Map<String, JenkinsSyncReport> recentRuns = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JenkinsSyncReport> eldest) {
+            return size() > RECENT_RUNS_KEPT;
+        }
+    };
+
+    @PostConstruct
+    void startWorkers() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        backfillExecutor = Executors.newFixedThreadPool(Math.max(1, maxConcurrency), runnable -> {
+            Thread thread = new Thread(runnable, "jenkins-backfill-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        // Interrupted jobs record INTERRUPTED on their checkpoint and can be resumed
+        backfillExecutor.shutdownNow();
+    }
+
+    /**
+     * Backfill the newest maxBuilds builds and/or every build since a date. An
+     * unfinished checkpoint with the same target is resumed; otherwise the job's
+     * checkpoint starts over. An empty job list means every job in Jenkins.
+     */
+    public JenkinsSyncReport startBackfill(List<String> jobNames, Integer maxBuilds, LocalDate since,
+                                          boolean includeTestCases) {
+        if (maxBuilds == null && since == null) {
+            throw new IllegalArgumentException("Either maxBuilds or since is required");
+        }
+        if (maxBuilds != null && maxBuilds <= 0) {
+            throw new IllegalArgumentException("maxBuilds must be positive");
+        }
+        Long sinceTimestamp = since != null ? since.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli() : null;
+
+        List<String> jobs = jobNames;
+        if (jobs == null || jobs.isEmpty()) {
+            jobs = jenkinsService.discoverJobs().stream()
+                    .map(JenkinsJobSnapshot::getJobName)
+                    .collect(Collectors.toList());
+        }
+
+        List<JenkinsBackfillCheckpoint> checkpoints = new ArrayList<>();
+        for (String jobName : new LinkedHashSet<>(jobs)) {
+            JenkinsBackfillCheckpoint checkpoint = checkpointRepository.findByJobName(jobName)
+                    .orElseGet(() -> new JenkinsBackfillCheckpoint(jobName));
+            if (!checkpoint.isResumableFor(maxBuilds, sinceTimestamp, includeTestCases)) {
+                checkpoint.restart(maxBuilds, sinceTimestamp, includeTestCases);
+            }
+            checkpoints.add(checkpoint);
+        }
+        return submit(checkpoints);
+    }
+
+    /**
+     * Pick up every backfill that was interrupted or failed, with its original target.
+     */
+    public JenkinsSyncReport resumeUnfinished() {
+        return submit(checkpointRepository.findUnfinished());
+    }
+
+    public JenkinsSyncReport getRun(String runId) {
+        synchronized (recentRuns) {
+            return recentRuns.get(runId);
+        }
+    }
+
+    public List<JenkinsBackfillCheckpoint> getCheckpoints() {
+        return checkpointRepository.findAll();
+    }
+
+    private JenkinsSyncReport submit(List<JenkinsBackfillCheckpoint> checkpoints) {
+        JenkinsSyncReport report = new JenkinsSyncReport(checkpoints.size(), Math.max(1, maxConcurrency));
+        synchronized (recentRuns) {
+            recentRuns.put(report.getRunId(), report);
+        }
+        if (checkpoints.isEmpty()) {
+            report.markFinished();
+            return report;
+        }
+        for (JenkinsBackfillCheckpoint checkpoint : checkpoints) {
+            checkpoint.setStatus(JenkinsBackfillCheckpoint.RUNNING);
+            JenkinsBackfillCheckpoint saved = checkpointRepository.save(checkpoint);
+            backfillExecutor.execute(() -> runJob(saved, report));
+        }
+        System.out.println("Started Jenkins backfill " + report.getRunId() + " for " + checkpoints.size() + " jobs");
+        return report;
+    }
+
+    private void runJob(JenkinsBackfillCheckpoint checkpoint, JenkinsSyncReport report) {
+        long start = System.currentTimeMillis();
+        JobStatus status = JobStatus.SYNCED;
+        String message;
+        report.jobStarted();
+        try {
+            backfillJob(checkpoint);
+            checkpoint.setStatus(JenkinsBackfillCheckpoint.COMPLETED);
+            message = "Ingested " + checkpoint.getBuildsIngested() + " builds, " +
+                    checkpoint.getBuildsSkipped() + " already stored";
+        } catch (InterruptedException e) {
+            checkpoint.setStatus(JenkinsBackfillCheckpoint.INTERRUPTED);
+            status = JobStatus.CANCELLED;
+            message = "Interrupted below build " + checkpoint.getResumeBelowBuild();
+        } catch (Exception e) {
+            checkpoint.setStatus(JenkinsBackfillCheckpoint.FAILED);
+            checkpoint.setLastError(e.getMessage());
+            status = JobStatus.FAILED;
+            message = e.getMessage();
+            System.err.println("Backfill of job " + checkpoint.getJobName() + " failed: " + e.getMessage());
+        }
+
+        try {
+            checkpointRepository.save(checkpoint);
+        } catch (Exception e) {
+            System.err.println("Failed to save backfill checkpoint for " + checkpoint.getJobName() + ": " + e.getMessage());
+        }
+        report.jobEnded();
+        report.record(checkpoint.getJobName(), status, System.currentTimeMillis() - start, message);
+        if (report.getCompletedJobs() >= report.getTotalJobs()) {
+            report.markFinished();
+            System.out.println("Jenkins backfill " + report.getRunId() + " finished in " + report.getElapsedMs() + " ms");
+        }
+    }
+
+    private void backfillJob(JenkinsBackfillCheckpoint checkpoint) throws Exception {
+        String jobName = checkpoint.getJobName();
+        Integer maxBuilds = checkpoint.getMaxBuilds();
+        Long since = checkpoint.getSinceTimestamp();
+
+        for (int from = 0; maxBuilds == null || from < maxBuilds; from += PAGE_SIZE) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            int to = maxBuilds != null ? Math.min(from + PAGE_SIZE, maxBuilds) : from + PAGE_SIZE;
+            // The {from,to} range must travel as a URI variable, not as template syntax
+            JsonNode builds = jenkinsApiClient.getJson(JenkinsUrls.job(jenkinsUrl, jobName) + "/api/json?tree={tree}",
+                    "allBuilds[" + JenkinsService.BUILD_TREE + "]{" + from + "," + to + "}").path("allBuilds");
+            if (!builds.isArray() || builds.isEmpty()) {
+                return;
+            }
+
+            boolean reachedSince = false;
+            int lowestBuild = Integer.MAX_VALUE;
+            Map<String, JenkinsJobSnapshot> candidates = new LinkedHashMap<>();
+            for (JsonNode build : builds) {
+                JenkinsJobSnapshot snapshot = jenkinsService.toSnapshot(jobName, build);
+                if (since != null && snapshot.getBuildTimestamp() != null && snapshot.getBuildTimestamp() < since) {
+                    reachedSince = true;
+                    break;
+                }
+                int number = build.path("number").asInt();
+                lowestBuild = Math.min(lowestBuild, number);
+                if (!build.hasNonNull("result")) {
+                    continue; // still running; the regular sync picks it up when it completes
+                }
+                if (checkpoint.getResumeBelowBuild() != null && number >= checkpoint.getResumeBelowBuild()) {
+                    continue;
+                }
+                candidates.put(snapshot.getBuildNumber(), snapshot);
+            }
+
+            if (!candidates.isEmpty()) {
+                storePage(checkpoint, candidates);
+            }
+            if (lowestBuild != Integer.MAX_VALUE &&
+                    (checkpoint.getResumeBelowBuild() == null || lowestBuild < checkpoint.getResumeBelowBuild())) {
+                checkpoint.setResumeBelowBuild(lowestBuild);
+            }
+            checkpointRepository.save(checkpoint);
+
+            if (reachedSince || builds.size() < to - from) {
+                return;
+            }
+        }
+    }
+
+    private void storePage(JenkinsBackfillCheckpoint checkpoint, Map<String, JenkinsJobSnapshot> candidates)
+            throws InterruptedException {
+        Set<String> stored = new HashSet<>(
+                jenkinsResultRepository.findStoredBuildNumbers(checkpoint.getJobName(), candidates.keySet()));
+
+        List<JenkinsResult> batch = new ArrayList<>();
+        for (JenkinsJobSnapshot snapshot : candidates.values()) {
+            if (!stored.contains(snapshot.getBuildNumber())) {
+                batch.add(jenkinsService.applySnapshot(new JenkinsResult(), snapshot));
+            }
+        }
+        List<JenkinsResult> saved = jenkinsResultRepository.saveAll(batch);
+
+        if (Boolean.TRUE.equals(checkpoint.getIncludeTestCases())) {
+            for (JenkinsResult result : saved) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+                jenkinsService.fetchAndSaveIndividualTestCases(result);
+            }
+        }
+
+        checkpoint.setBuildsIngested(checkpoint.getBuildsIngested() + saved.size());
+        checkpoint.setBuildsSkipped(checkpoint.getBuildsSkipped() + stored.size());
+    }
+}
@@ -0,0 +1,321 @@
+package com.qa.automation.service;
+
+import com.qa.automation.model.JenkinsResult;
+import com.qa.automation.model.JenkinsTestIdentity;
+import com.qa.automation.repository.JenkinsResultRepository;
+import com.qa.automation.repository.JenkinsTestIdentityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Test-level diff between two stored builds of a job. Both builds are read in test
+ * identity order, one keyset page at a time, and compared in a single merge pass, so
+ * memory stays at two pages plus the reported entries whatever the build size.
+ */
+@Service
+public class JenkinsBuildDiffService {
+
+    static final int PAGE_SIZE = 2000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JenkinsResultRepository jenkinsResultRepository;
+
+    @Autowired
+    private JenkinsTestIdentityRepository jenkinsTestIdentityRepository;
+
+    @Value("${jenkins.diff.duration-regression-factor:1.5}")
+    private double durationRegressionFactor;
+
+    @Value("${jenkins.diff.duration-regression-min-seconds:1.0}")
+    private double durationRegressionMinSeconds;
+
+    // One test of one build; data-provider invocations are folded into a single outcome
+    private static final class TestOutcome {
+        final long testIdentityId;
+        String status;
+        Double duration;
+
+        TestOutcome(long testIdentityId, String status, Double duration) {
+            this.testIdentityId = testIdentityId;
+            this.status = status;
+            this.duration = duration;
+        }
+
+        void fold(String otherStatus, Double otherDuration) {
+            if ("FAILED".equals(otherStatus) || ("PASSED".equals(otherStatus) && !"FAILED".equals(status))) {
+                status = otherStatus;
+            }
+            if (otherDuration != null) {
+                duration = duration != null ? duration + otherDuration : otherDuration;
+            }
+        }
+    }
+
+    private static final class Row {
+        final long id;
+        final long testIdentityId;
+        final String status;
+        final Double duration;
+
+        Row(long id, long testIdentityId, String status, Double duration) {
+            this.id = id;
+            this.testIdentityId = testIdentityId;
+            this.status = status;
+            this.duration = duration;
+        }
+    }
+
+    // Keyset pages of one build ordered by (test_identity_id, id), served by idx_jenkins_test_cases_result_identity
+    private final class BuildCursor {
+        private final long resultId;
+        private List<Row> page = List.of();
+        private int position;
+        private boolean exhausted;
+        private long lastIdentity = Long.MIN_VALUE;
+        private long lastId = Long.MIN_VALUE;
+
+        BuildCursor(long resultId) {
+            this.resultId = resultId;
+        }
+
+        TestOutcome next() {
+            Row row = nextRow();
+            if (row == null) {
+                return null;
+            }
+            TestOutcome outcome = new TestOutcome(row.testIdentityId, row.status, row.duration);
+            Row following;
+            while ((following = peekRow()) != null && following.testIdentityId == outcome.testIdentityId) {
+                outcome.fold(following.status, following.duration);
+                position++;
+            }
+            return outcome;
+        }
+
+        private Row nextRow() {
+            Row row = peekRow();
+            if (row != null) {
+                position++;
+            }
+            return row;
+        }
+
+        private Row peekRow() {
+            if (position == page.size()) {
+                if (exhausted) {
+                    return null;
+                }
+                page = jdbcTemplate.query("SELECT id, test_identity_id, status, duration FROM jenkins_test_cases " +
+                                "WHERE jenkins_result_id = ? AND test_identity_id IS NOT NULL " +
+                                "AND (test_identity_id > ? OR (test_identity_id = ? AND id > ?)) " +
+                                "ORDER BY test_identity_id, id LIMIT " + PAGE_SIZE,
+                        (rs, rowNum) -> new Row(rs.getLong(1), rs.getLong(2), rs.getString(3),
+                                rs.getObject(4) != null ? rs.getDouble(4) : null),
+                        resultId, lastIdentity, lastIdentity, lastId);
+                position = 0;
+                exhausted = page.size() < PAGE_SIZE;
+                if (page.isEmpty()) {
+                    return null;
+                }
+                Row last = page.get(page.size() - 1);
+                lastIdentity = last.testIdentityId;
+                lastId = last.id;
+            }
+            return page.get(position);
+        }
+    }
+
+    // Count of one change category and the first entries of it
+    private static final class Category {
+        final int limit;
+        final List<Map<String, Object>> entries = new ArrayList<>();
+        long count;
+
+        Category(int limit) {
+            this.limit = limit;
+        }
+
+        void add(TestOutcome from, TestOutcome to) {
+            count++;
+            if (entries.size() < limit) {
+                entries.add(entryOf(from, to));
+            }
+        }
+    }
+
+    /**
+     * Diff two builds of a job. A missing toBuild means the newest stored build and a
+     * missing fromBuild the stored build before toBuild.
+     *
+     * @throws IllegalArgumentException when either build is not stored
+     */
+    public Map<String, Object> diff(String jobName, String fromBuild, String toBuild, int limit) {
+        JenkinsResult to = toBuild != null ? findBuild(jobName, toBuild) : null;
+        JenkinsResult from = fromBuild != null ? findBuild(jobName, fromBuild) : null;
+        if (to == null || from == null) {
+            List<JenkinsResult> builds = jenkinsResultRepository.findLatestByJobName(jobName);
+            if (to == null) {
+                to = builds.stream().findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("No stored builds for job " + jobName));
+            }
+            if (from == null) {
+                int toIndex = 0;
+                while (toIndex < builds.size() && !builds.get(toIndex).getId().equals(to.getId())) {
+                    toIndex++;
+                }
+                if (toIndex + 1 >= builds.size()) {
+                    throw new IllegalArgumentException("No stored build before build " + to.getBuildNumber() + " of job " + jobName);
+                }
+                from = builds.get(toIndex + 1);
+            }
+        }
+
+        int entryLimit = Math.max(1, Math.min(limit, 10000));
+        Category newlyFailing = new Category(entryLimit);
+        Category newlyPassing = new Category(entryLimit);
+        Category added = new Category(entryLimit);
+        Category removed = new Category(entryLimit);
+        // Biggest slowdowns first, so keep the top entries rather than the first ones
+        PriorityQueue<TestOutcome[]> slowest = new PriorityQueue<>(Comparator.comparingDouble(JenkinsBuildDiffService::slowdown));
+        long durationRegressed = 0;
+        long stillFailing = 0;
+        long unchanged = 0;
+
+        BuildCursor fromCursor = new BuildCursor(from.getId());
+        BuildCursor toCursor = new BuildCursor(to.getId());
+        TestOutcome before = fromCursor.next();
+        TestOutcome after = toCursor.next();
+        while (before != null || after != null) {
+            int order = before == null ? 1 : after == null ? -1 : Long.compare(before.testIdentityId, after.testIdentityId);
+            if (order < 0) {
+                removed.add(before, null);
+                before = fromCursor.next();
+                continue;
+            }
+            if (order > 0) {
+                added.add(null, after);
+                after = toCursor.next();
+                continue;
+            }
+
+            boolean failedBefore = "FAILED".equals(before.status);
+            boolean failedAfter = "FAILED".equals(after.status);
+            if (failedAfter && failedBefore) {
+                stillFailing++;
+            } else if (failedAfter) {
+                newlyFailing.add(before, after);
+            } else if (failedBefore && "PASSED".equals(after.status)) {
+                newlyPassing.add(before, after);
+            } else {
+                unchanged++;
+            }
+
+            if (isDurationRegression(before, after)) {
+                durationRegressed++;
+                slowest.add(new TestOutcome[]{before, after});
+                if (slowest.size() > entryLimit) {
+                    slowest.poll();
+                }
+            }
+            before = fromCursor.next();
+            after = toCursor.next();
+        }
+
+        List<Map<String, Object>> regressions = new ArrayList<>(slowest.size());
+        List<TestOutcome[]> bySlowdown = new ArrayList<>(slowest);
+        bySlowdown.sort(Comparator.comparingDouble(JenkinsBuildDiffService::slowdown).reversed());
+        for (TestOutcome[] pair : bySlowdown) {
+            regressions.add(entryOf(pair[0], pair[1]));
+        }
+
+        Map<Long, JenkinsTestIdentity> identities = loadIdentities(List.of(newlyFailing.entries, newlyPassing.entries,
+                added.entries, removed.entries, regressions));
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("newlyFailing", newlyFailing.count);
+        summary.put("newlyPassing", newlyPassing.count);
+        summary.put("added", added.count);
+        summary.put("removed", removed.count);
+        summary.put("durationRegressed", durationRegressed);
+        summary.put("stillFailing", stillFailing);
+        summary.put("unchanged", unchanged);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jobName", jobName);
+        result.put("fromBuild", from.getBuildNumber());
+        result.put("toBuild", to.getBuildNumber());
+        result.put("summary", summary);
+        result.put("newlyFailing", named(newlyFailing.entries, identities, true));
+        result.put("newlyPassing", named(newlyPassing.entries, identities, true));
+        result.put("added", named(added.entries, identities, true));
+        result.put("removed", named(removed.entries, identities, true));
+        result.put("durationRegressed", named(regressions, identities, false));
+        result.put("limit", entryLimit);
+        return result;
+    }
+
+    private JenkinsResult findBuild(String jobName, String buildNumber) {
+        return jenkinsResultRepository.findByJobNameAndBuildNumber(jobName, buildNumber)
+                .orElseThrow(() -> new IllegalArgumentException("Build " + buildNumber + " of job " + jobName + " is not stored"));
+    }
+
+    private boolean isDurationRegression(TestOutcome before, TestOutcome after) {
+        if (before.duration == null || after.duration == null || !"PASSED".equals(after.status)) {
+            return false;
+        }
+        return after.duration - before.duration >= durationRegressionMinSeconds
+                && after.duration >= before.duration * durationRegressionFactor;
+    }
+
+    private static double slowdown(TestOutcome[] pair) {
+        return pair[1].duration - pair[0].duration;
+    }
+
+    private static Map<String, Object> entryOf(TestOutcome from, TestOutcome to) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("testIdentityId", from != null ? from.testIdentityId : to.testIdentityId);
+        entry.put("fromStatus", from != null ? from.status : null);
+        entry.put("toStatus", to != null ? to.status : null);
+        entry.put("fromDuration", from != null ? from.duration : null);
+        entry.put("toDuration", to != null ? to.duration : null);
+        return entry;
+    }
+
+    private Map<Long, JenkinsTestIdentity> loadIdentities(List<List<Map<String, Object>>> lists) {
+        Set<Long> ids = new HashSet<>();
+        for (List<Map<String, Object>> entries : lists) {
+            for (Map<String, Object> entry : entries) {
+                ids.add((Long) entry.get("testIdentityId"));
+            }
+        }
+        return jenkinsTestIdentityRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(JenkinsTestIdentity::getId, Function.identity()));
+    }
+
+    private List<Map<String, Object>> named(List<Map<String, Object>> entries, Map<Long, JenkinsTestIdentity> identities,
+                                            boolean sortByName) {
+        List<Map<String, Object>> result = new ArrayList<>(entries.size());
+        for (Map<String, Object> entry : entries) {
+            JenkinsTestIdentity identity = identities.get((Long) entry.get("testIdentityId"));
+            Map<String, Object> named = new LinkedHashMap<>();
+            named.put("className", identity != null ? identity.getClassName() : null);
+            named.put("testName", identity != null ? identity.getTestName() : null);
+            named.putAll(entry);
+            result.add(named);
+        }
+        if (sortByName) {
+            result.sort(Comparator.comparing((Map<String, Object> entry) -> Objects.toString(entry.get("className"), ""))
+                    .thenComparing(entry -> Objects.toString(entry.get("testName"), "")));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,271 @@
+package com.qa.automation.service;
+
+import com.qa.automation.config.JenkinsSchemaInitializer;
+import com.qa.automation.model.JenkinsDurationSketch;
+import com.qa.automation.model.JenkinsResult;
+import com.qa.automation.model.JenkinsTestCase;
+import com.qa.automation.model.JenkinsTestIdentity;
+import com.qa.automation.repository.JenkinsDurationSketchRepository;
+import com.qa.automation.repository.JenkinsTestIdentityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-test duration distributions, one quantile sketch per (job, test identity),
+ * updated as builds are ingested. Percentiles, slowest tests and duration regressions
+ * are answered from the sketches instead of aggregating jenkins_test_cases.
+ */
+@Service
+public class JenkinsDurationSketchService {
+
+    private static final int CHUNK = 1000;
+
+    @Autowired
+    private JenkinsDurationSketchRepository jenkinsDurationSketchRepository;
+
+    @Autowired
+    private JenkinsTestIdentityRepository jenkinsTestIdentityRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JenkinsSchemaInitializer jenkinsSchemaInitializer;
+
+    @Value("${jenkins.durations.regression-factor:2.0}")
+    private double defaultRegressionFactor;
+
+    @Value("${jenkins.durations.regression-min-seconds:1.0}")
+    private double defaultRegressionMinSeconds;
+
+    @Value("${jenkins.durations.regression-min-samples:5}")
+    private long defaultRegressionMinSamples;
+
+    private TransactionTemplate transaction;
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Seed the sketches from stored builds, oldest first. Each build is added and marked
+     * sketched in one transaction, so a seed cut short by a restart resumes with the
+     * first unmarked build instead of leaving the sketches partial. Waits for the test
+     * identity backfill, since a build is marked sketched even if its rows had no identity.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedFromStoredResults() {
+        Thread thread = new Thread(() -> {
+            try {
+                jenkinsSchemaInitializer.awaitTestIdentityBackfill();
+                List<JenkinsResult> results = jdbcTemplate.query("SELECT id, job_name, build_number, build_timestamp " +
+                        "FROM jenkins_results WHERE duration_sketched IS NULL ORDER BY build_timestamp, id", (row, rowNum) -> {
+                    JenkinsResult result = new JenkinsResult();
+                    result.setId(row.getLong(1));
+                    result.setJobName(row.getString(2));
+                    result.setBuildNumber(row.getString(3));
+                    Timestamp timestamp = row.getTimestamp(4);
+                    result.setBuildTimestamp(timestamp != null ? timestamp.toLocalDateTime() : null);
+                    return result;
+                });
+                int seeded = 0;
+                for (JenkinsResult result : results) {
+                    Boolean added = transaction.execute(status -> seedBuild(result));
+                    if (Boolean.TRUE.equals(added)) {
+                        seeded++;
+                    }
+                }
+                if (seeded > 0) {
+                    System.out.println("Seeded duration sketches from " + seeded + " stored builds");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                System.err.println("Failed to seed duration sketches: " + e.getMessage());
+            }
+        }, "jenkins-duration-seed");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Skips a build an ingest marked since the seed listed it; the row lock orders the two
+    private boolean seedBuild(JenkinsResult result) {
+        List<Boolean> sketched = jdbcTemplate.query("SELECT duration_sketched FROM jenkins_results WHERE id = ? FOR UPDATE",
+                (row, rowNum) -> row.getBoolean(1), result.getId());
+        if (sketched.isEmpty() || sketched.get(0)) {
+            return false;
+        }
+        List<JenkinsTestCase> testCases = jdbcTemplate.query("SELECT id, test_identity_id, duration " +
+                "FROM jenkins_test_cases WHERE jenkins_result_id = ? AND duration IS NOT NULL", (row, rowNum) -> {
+            JenkinsTestCase testCase = new JenkinsTestCase();
+            testCase.setId(row.getLong(1));
+            testCase.setTestIdentityId(row.getObject(2) != null ? row.getLong(2) : null);
+            testCase.setDuration(row.getDouble(3));
+            return testCase;
+        }, result.getId());
+        addDurations(result, testCases);
+        return true;
+    }
+
+    /**
+     * Add the durations of newly stored test rows of one build to their sketches.
+     * Rows the writer inserted are the ones that got an id; a resync of the same build
+     * therefore adds nothing twice. Returns the number of sketches updated.
+     */
+    public int recordBuild(JenkinsResult jenkinsResult, List<JenkinsTestCase> testCases) {
+        Integer updated = transaction.execute(status -> addDurations(jenkinsResult, testCases));
+        return updated != null ? updated : 0;
+    }
+
+    // Runs inside the caller's transaction, together with marking the build as sketched
+    private int addDurations(JenkinsResult jenkinsResult, List<JenkinsTestCase> testCases) {
+        // Repeated invocations of a data-provider test count as one run
+        Map<Long, Double> durations = new HashMap<>();
+        for (JenkinsTestCase testCase : testCases) {
+            if (testCase.getId() != null && testCase.getTestIdentityId() != null && testCase.getDuration() != null) {
+                durations.merge(testCase.getTestIdentityId(), testCase.getDuration(), Double::sum);
+            }
+        }
+
+        LocalDateTime buildAt = jenkinsResult.getBuildTimestamp() != null ? jenkinsResult.getBuildTimestamp() : LocalDateTime.now();
+        List<Long> ids = new ArrayList<>(durations.keySet());
+        for (int from = 0; from < ids.size(); from += CHUNK) {
+            updateSketches(jenkinsResult, buildAt, ids.subList(from, Math.min(from + CHUNK, ids.size())), durations);
+        }
+        if (jenkinsResult.getId() != null) {
+            jdbcTemplate.update("UPDATE jenkins_results SET duration_sketched = TRUE WHERE id = ?", jenkinsResult.getId());
+        }
+        return durations.size();
+    }
+
+    private void updateSketches(JenkinsResult jenkinsResult, LocalDateTime buildAt, List<Long> ids, Map<Long, Double> durations) {
+        Map<Long, JenkinsDurationSketch> stored = new HashMap<>();
+        List<Object> args = new ArrayList<>();
+        args.add(jenkinsResult.getJobName());
+        args.addAll(ids);
+        // Locked so concurrent ingests of the same job do not lose each other's samples
+        jdbcTemplate.query("SELECT test_identity_id, sketch, baseline_p95, last_duration, last_build_number, last_build_at " +
+                "FROM jenkins_duration_sketches WHERE job_name = ? AND test_identity_id IN (" +
+                String.join(", ", Collections.nCopies(ids.size(), "?")) + ") FOR UPDATE", row -> {
+            JenkinsDurationSketch sketch = new JenkinsDurationSketch();
+            sketch.setSketch(row.getBytes(2));
+            sketch.setBaselineP95(row.getObject(3) != null ? row.getDouble(3) : null);
+            sketch.setLastDuration(row.getObject(4) != null ? row.getDouble(4) : null);
+            sketch.setLastBuildNumber(row.getString(5));
+            Timestamp lastBuildAt = row.getTimestamp(6);
+            sketch.setLastBuildAt(lastBuildAt != null ? lastBuildAt.toLocalDateTime() : null);
+            stored.put(row.getLong(1), sketch);
+        }, args.toArray());
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> upserts = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            JenkinsDurationSketch previous = stored.get(id);
+            DurationSketch sketch = DurationSketch.decode(previous != null ? previous.getSketch() : null);
+            Double p95Before = sketch.quantile(0.95);
+            double duration = durations.get(id);
+            sketch.add(duration);
+
+            // A backfilled older build adds to the distribution but is not the latest run
+            boolean latest = previous == null || previous.getLastBuildAt() == null || !buildAt.isBefore(previous.getLastBuildAt());
+            Double baselineP95 = latest ? p95Before : previous.getBaselineP95();
+            Double lastDuration = latest ? duration : previous.getLastDuration();
+            String lastBuildNumber = latest ? jenkinsResult.getBuildNumber() : previous.getLastBuildNumber();
+            LocalDateTime lastBuildAt = latest ? buildAt : previous.getLastBuildAt();
+
+            upserts.add(new Object[]{jenkinsResult.getJobName(), id, sketch.encode(), sketch.getCount(),
+                    sketch.quantile(0.5), sketch.quantile(0.95), baselineP95, lastDuration, lastBuildNumber,
+                    Timestamp.valueOf(lastBuildAt), now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO jenkins_duration_sketches (job_name, test_identity_id, sketch, sample_count, " +
+                "p50, p95, baseline_p95, last_duration, last_build_number, last_build_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE sketch = VALUES(sketch), " +
+                "sample_count = VALUES(sample_count), p50 = VALUES(p50), p95 = VALUES(p95), " +
+                "baseline_p95 = VALUES(baseline_p95), last_duration = VALUES(last_duration), " +
+                "last_build_number = VALUES(last_build_number), last_build_at = VALUES(last_build_at), " +
+                "updated_at = VALUES(updated_at)", upserts);
+    }
+
+    /**
+     * Duration percentiles of one test in one job.
+     */
+    public Optional<Map<String, Object>> getDurations(String jobName, long testIdentityId) {
+        return jenkinsDurationSketchRepository.findByJobNameAndTestIdentityId(jobName, testIdentityId).map(stored -> {
+            DurationSketch sketch = DurationSketch.decode(stored.getSketch());
+            Map<String, Object> result = toMap(stored);
+            result.put("p90", sketch.quantile(0.9));
+            result.put("p99", sketch.quantile(0.99));
+            result.put("sketchBytes", stored.getSketch().length);
+            return result;
+        });
+    }
+
+    /**
+     * Tests of a job with the highest median (or p95) duration.
+     */
+    public List<Map<String, Object>> getSlowestTests(String jobName, boolean byP95, int limit) {
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, 1000)));
+        List<JenkinsDurationSketch> sketches = byP95 ?
+                jenkinsDurationSketchRepository.findSlowestByP95(jobName, page) :
+                jenkinsDurationSketchRepository.findSlowestByMedian(jobName, page);
+        return withNames(sketches);
+    }
+
+    /**
+     * Tests whose run in the job's newest build took at least factor times, and at least
+     * minSeconds longer than, their p95 before that run. Null arguments use the defaults.
+     */
+    public List<Map<String, Object>> getDurationRegressions(String jobName, Double factor, Double minSeconds,
+                                                            Long minSamples, int limit) {
+        List<JenkinsDurationSketch> sketches = jenkinsDurationSketchRepository.findDurationRegressions(jobName,
+                minSamples != null ? minSamples : defaultRegressionMinSamples,
+                factor != null ? factor : defaultRegressionFactor,
+                minSeconds != null ? minSeconds : defaultRegressionMinSeconds,
+                PageRequest.of(0, Math.max(1, Math.min(limit, 1000))));
+        return withNames(sketches);
+    }
+
+    private List<Map<String, Object>> withNames(List<JenkinsDurationSketch> sketches) {
+        Set<Long> ids = sketches.stream().map(JenkinsDurationSketch::getTestIdentityId).collect(Collectors.toSet());
+        Map<Long, JenkinsTestIdentity> identities = jenkinsTestIdentityRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(JenkinsTestIdentity::getId, Function.identity()));
+        List<Map<String, Object>> result = new ArrayList<>(sketches.size());
+        for (JenkinsDurationSketch sketch : sketches) {
+            JenkinsTestIdentity identity = identities.get(sketch.getTestIdentityId());
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("className", identity != null ? identity.getClassName() : null);
+            entry.put("testName", identity != null ? identity.getTestName() : null);
+            entry.putAll(toMap(sketch));
+            result.add(entry);
+        }
+        return result;
+    }
+
+    private Map<String, Object> toMap(JenkinsDurationSketch sketch) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("jobName", sketch.getJobName());
+        map.put("testIdentityId", sketch.getTestIdentityId());
+        map.put("samples", sketch.getSampleCount());
+        map.put("p50", sketch.getP50());
+        map.put("p95", sketch.getP95());
+        map.put("baselineP95", sketch.getBaselineP95());
+        map.put("lastDuration", sketch.getLastDuration());
+        map.put("lastBuildNumber", sketch.getLastBuildNumber());
+        map.put("lastBuildAt", sketch.getLastBuildAt());
+        return map;
+    }
+}
@@ -0,0 +1,252 @@
+package com.qa.automation.service;
+
+import com.qa.automation.model.JenkinsFailureDetail;
+import com.qa.automation.model.JenkinsTestCase;
+import com.qa.automation.repository.JenkinsFailureDetailRepository;
+import com.qa.automation.repository.JenkinsTestCaseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressed store for failure messages and stack traces. Each distinct
+ * (message, trace) pair is normalized, hashed and stored once gzip-compressed;
+ * test rows only carry the id. A bad build where thousands of tests fail the same
+ * way therefore adds a single detail row.
+ */
+@Service
+public class JenkinsFailureDetailService {
+
+    @Autowired
+    private JenkinsFailureDetailRepository jenkinsFailureDetailRepository;
+
+    @Autowired
+    private JenkinsTestCaseRepository jenkinsTestCaseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate newRowsTransaction;
+
+    // Digest -> id of details known to be stored
+    @Value("${jenkins.failure-details.cache-size:10000}")
+    private int cacheSize;
+
+    private final Map<String, Long> storedIds = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    // New rows commit on their own, so a rolled-back ingest never leaves the cache pointing at missing rows
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        newRowsTransaction = new TransactionTemplate(transactionManager);
+        newRowsTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Store the failure details of every test case that has any and set their ids.
+     */
+    public void assignFailureDetails(Collection<JenkinsTestCase> testCases) {
+        Map<String, byte[]> encodedByDigest = new HashMap<>();
+        Map<JenkinsTestCase, String> digests = new IdentityHashMap<>();
+        Map<String, Long> resolved = new HashMap<>();
+
+        for (JenkinsTestCase testCase : testCases) {
+            if (testCase.getErrorMessage() == null && testCase.getStackTrace() == null) {
+                continue;
+            }
+            byte[] encoded = encode(normalize(testCase.getErrorMessage()), normalize(testCase.getStackTrace()));
+            String digest = sha256(encoded);
+            digests.put(testCase, digest);
+            encodedByDigest.putIfAbsent(digest, encoded);
+        }
+        if (digests.isEmpty()) {
+            return;
+        }
+
+        synchronized (storedIds) {
+            for (String digest : encodedByDigest.keySet()) {
+                Long id = storedIds.get(digest);
+                if (id != null) {
+                    resolved.put(digest, id);
+                }
+            }
+        }
+        encodedByDigest.keySet().removeAll(resolved.keySet());
+
+        if (!encodedByDigest.isEmpty()) {
+            Map<String, Long> stored = newRowsTransaction.execute(status -> lookupOrStore(encodedByDigest));
+            synchronized (storedIds) {
+                storedIds.putAll(stored);
+            }
+            resolved.putAll(stored);
+        }
+
+        for (Map.Entry<JenkinsTestCase, String> entry : digests.entrySet()) {
+            entry.getKey().setFailureDetailId(resolved.get(entry.getValue()));
+        }
+    }
+
+    /**
+     * Failure details of one stored test case, or empty when it has none.
+     */
+    public Optional<Map<String, Object>> loadForTestCase(Long testCaseId) {
+        return jenkinsTestCaseRepository.findById(testCaseId)
+                .flatMap(testCase -> load(testCase.getFailureDetailId()))
+                .map(details -> {
+                    details.put("testCaseId", testCaseId);
+                    return details;
+                });
+    }
+
+    /**
+     * Decompress a stored detail into errorMessage and stackTrace.
+     */
+    public Optional<Map<String, Object>> load(Long failureDetailId) {
+        if (failureDetailId == null) {
+            return Optional.empty();
+        }
+        return jenkinsFailureDetailRepository.findById(failureDetailId).map(detail -> {
+            String[] decoded = decode(detail.getContent());
+            Map<String, Object> result = new HashMap<>();
+            result.put("failureDetailId", detail.getId());
+            result.put("errorMessage", decoded[0]);
+            result.put("stackTrace", decoded[1]);
+            result.put("originalBytes", detail.getOriginalBytes());
+            result.put("compressedBytes", detail.getCompressedBytes());
+            return result;
+        });
+    }
+
+    /**
+     * Same probing scheme as test identities: start at the digest prefix and move to
+     * the next id while a different digest holds it.
+     */
+    private Map<String, Long> lookupOrStore(Map<String, byte[]> encodedByDigest) {
+        Map<String, Long> result = new HashMap<>();
+        Map<String, Long> candidates = new LinkedHashMap<>();
+        for (String digest : encodedByDigest.keySet()) {
+            candidates.put(digest, Long.parseUnsignedLong(digest.substring(0, 16), 16));
+        }
+
+        while (!candidates.isEmpty()) {
+            Map<Long, String> digestsById = new HashMap<>();
+            for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+                long id = candidate.getValue();
+                while (digestsById.containsKey(id)) {
+                    id++;
+                }
+                candidate.setValue(id);
+                digestsById.put(id, candidate.getKey());
+            }
+
+            Map<Long, String> storedDigests = new HashMap<>();
+            for (Object[] row : jenkinsFailureDetailRepository.findDigestsByIdIn(digestsById.keySet())) {
+                storedDigests.put((Long) row[0], (String) row[1]);
+            }
+
+            List<Object[]> inserts = new ArrayList<>();
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (Map.Entry<Long, String> entry : digestsById.entrySet()) {
+                String digest = entry.getValue();
+                String storedDigest = storedDigests.get(entry.getKey());
+                if (storedDigest == null) {
+                    byte[] encoded = encodedByDigest.get(digest);
+                    byte[] compressed = gzip(encoded);
+                    inserts.add(new Object[]{entry.getKey(), digest, compressed, encoded.length, compressed.length, now});
+                } else if (storedDigest.equals(digest)) {
+                    result.put(digest, entry.getKey());
+                    candidates.remove(digest);
+                } else {
+                    candidates.put(digest, entry.getKey() + 1);
+                }
+            }
+
+            if (!inserts.isEmpty()) {
+                // IGNORE: a concurrent ingest may store the same id; the next round re-reads it
+                jdbcTemplate.batchUpdate("INSERT IGNORE INTO jenkins_failure_details " +
+                        "(id, content_sha256, content, original_bytes, compressed_bytes, created_at) VALUES (?, ?, ?, ?, ?, ?)", inserts);
+            }
+        }
+        return result;
+    }
+
+    // Line endings and trailing whitespace vary between agents without changing the failure
+    private String normalize(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        for (String line : text.replace("\r\n", "\n").replace('\r', '\n').split("\n", -1)) {
+            normalized.append(line.stripTrailing()).append('\n');
+        }
+        return normalized.toString().strip();
+    }
+
+    // [flags][message length][message][trace], lengths as ints so either part may be null
+    private byte[] encode(String errorMessage, String stackTrace) {
+        byte[] message = errorMessage != null ? errorMessage.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        byte[] trace = stackTrace != null ? stackTrace.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int flags = (errorMessage != null ? 1 : 0) | (stackTrace != null ? 2 : 0);
+        return ByteBuffer.allocate(1 + 4 + message.length + trace.length)
+                .put((byte) flags)
+                .putInt(message.length)
+                .put(message)
+                .put(trace)
+                .array();
+    }
+
+    private String[] decode(byte[] compressed) {
+        ByteBuffer buffer = ByteBuffer.wrap(gunzip(compressed));
+        int flags = buffer.get();
+        int messageLength = buffer.getInt();
+        String message = new String(buffer.array(), buffer.position(), messageLength, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + messageLength);
+        String trace = new String(buffer.array(), buffer.position(), buffer.remaining(), StandardCharsets.UTF_8);
+        return new String[]{(flags & 1) != 0 ? message : null, (flags & 2) != 0 ? trace : null};
+    }
+
+    private String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private byte[] gzip(byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, content.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] gunzip(byte[] compressed) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.qa.automation.service;
+
+import com.qa.automation.model.JenkinsFailureSignature;
+import com.qa.automation.model.JenkinsFailureSignatureJob;
+import com.qa.automation.model.JenkinsResult;
+import com.qa.automation.model.JenkinsTestCase;
+import com.qa.automation.repository.JenkinsFailureSignatureJobRepository;
+import com.qa.automation.repository.JenkinsFailureSignatureRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Failure-signature index, maintained at ingest. Each failed test is reduced to a
+ * fingerprint (exception type, message without volatile tokens, top application
+ * frames); per-job counters per signature are upserted once per build, so "what is
+ * failing everywhere" is a grouped read over a small table instead of a scan of
+ * jenkins_test_cases.
+ */
+@Service
+public class JenkinsFailureSignatureService {
+
+    private static final int TOP_FRAMES = 3;
+    private static final int MAX_MESSAGE_CHARS = 300;
+
+    private static final Pattern UUID = Pattern.compile("\\b[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}\\b");
+    private static final Pattern TIMESTAMP = Pattern.compile(
+            "\\d{4}-\\d{2}-\\d{2}([T ]\\d{2}:\\d{2}(:\\d{2}(\\.\\d+)?)?(Z|[+-]\\d{2}:?\\d{2})?)?");
+    private static final Pattern HEX_ID = Pattern.compile("\\b(0x[0-9a-fA-F]+|(?=[0-9a-fA-F]*\\d)[0-9a-fA-F]{8,})\\b");
+    private static final Pattern OBJECT_ID = Pattern.compile("@[0-9a-fA-F]{4,}\\b");
+    private static final Pattern NUMBER = Pattern.compile("\\d+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern EXCEPTION_TYPE = Pattern.compile(
+            "^([\\w$]+(?:\\.[\\w$]+)*(?:Exception|Error|Throwable|Failure|Failed)[\\w$]*)(?::|$|\\s)");
+    private static final Pattern FRAME = Pattern.compile("^\\s*at\\s+([\\w$.<>/]+)\\(");
+    // Framework and JDK frames say nothing about which test code broke
+    private static final List<String> IGNORED_FRAME_PREFIXES = List.of(
+            "java.", "javax.", "jdk.", "sun.", "org.testng.", "org.junit.", "junit.", "org.apache.maven.surefire.");
+
+    @Autowired
+    private JenkinsFailureSignatureRepository jenkinsFailureSignatureRepository;
+
+    @Autowired
+    private JenkinsFailureSignatureJobRepository jenkinsFailureSignatureJobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${jenkins.failure-signatures.cache-size:10000}")
+    private int cacheSize;
+
+    // Failure detail id -> fingerprint, so identical failures are normalized once
+    private final Map<Long, Fingerprint> fingerprintsByDetail = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Fingerprint> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    private static class Fingerprint {
+        final String exceptionType;
+        final String messagePattern;
+        final String topFrames;
+        final String sha256;
+
+        Fingerprint(String exceptionType, String messagePattern, String topFrames) {
+            this.exceptionType = exceptionType;
+            this.messagePattern = messagePattern;
+            this.topFrames = topFrames;
+            this.sha256 = sha256(exceptionType + '\n' + messagePattern + '\n' + topFrames);
+        }
+    }
+
+    /**
+     * Fold the failed tests of one build into the per-job signature counters. Safe to
+     * repeat for the job's latest build: counts of that build are replaced, not added.
+     */
+    @Transactional
+    public void recordBuild(JenkinsResult jenkinsResult, List<JenkinsTestCase> testCases) {
+        Map<String, Fingerprint> fingerprints = new HashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        Map<String, Long> sampleDetails = new HashMap<>();
+
+        for (JenkinsTestCase testCase : testCases) {
+            if (!"FAILED".equals(testCase.getStatus())) {
+                continue;
+            }
+            Fingerprint fingerprint = fingerprintOf(testCase);
+            fingerprints.putIfAbsent(fingerprint.sha256, fingerprint);
+            counts.merge(fingerprint.sha256, 1, Integer::sum);
+            if (testCase.getFailureDetailId() != null) {
+                sampleDetails.putIfAbsent(fingerprint.sha256, testCase.getFailureDetailId());
+            }
+        }
+
+        LocalDateTime buildAt = jenkinsResult.getBuildTimestamp() != null ? jenkinsResult.getBuildTimestamp() : LocalDateTime.now();
+        Map<String, Long> signatureIds = resolveSignatures(fingerprints, sampleDetails, buildAt);
+        String jobName = jenkinsResult.getJobName();
+        String buildNumber = jenkinsResult.getBuildNumber();
+
+        // A resync of this build may no longer have some failures: take their counts back out
+        List<Object> resetArgs = new ArrayList<>(List.of(jobName, buildNumber));
+        String keep = "";
+        if (!signatureIds.isEmpty()) {
+            resetArgs.addAll(signatureIds.values());
+            keep = " AND signature_id NOT IN (" + String.join(", ", Collections.nCopies(signatureIds.size(), "?")) + ")";
+        }
+        jdbcTemplate.update("UPDATE jenkins_failure_signature_jobs SET occurrences = occurrences - last_build_count, " +
+                "last_build_count = 0 WHERE job_name = ? AND last_build_number = ?" + keep, resetArgs.toArray());
+
+        if (signatureIds.isEmpty()) {
+            return;
+        }
+
+        Timestamp at = Timestamp.valueOf(buildAt);
+        List<Object[]> upserts = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : signatureIds.entrySet()) {
+            int count = counts.get(entry.getKey());
+            upserts.add(new Object[]{entry.getValue(), jobName, count, buildNumber, count, at, at, at});
+        }
+        // Assignments run left to right, so each one still sees the previous build's values it needs
+        jdbcTemplate.batchUpdate("INSERT INTO jenkins_failure_signature_jobs (signature_id, job_name, occurrences, " +
+                "last_build_number, last_build_count, last_build_at, first_seen, last_seen) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE " +
+                "occurrences = occurrences + IF(last_build_number = VALUES(last_build_number), " +
+                "VALUES(last_build_count) - last_build_count, VALUES(last_build_count)), " +
+                "first_seen = LEAST(first_seen, VALUES(first_seen)), " +
+                "last_seen = GREATEST(last_seen, VALUES(last_seen)), " +
+                "last_build_count = IF(VALUES(last_build_at) >= last_build_at, VALUES(last_build_count), last_build_count), " +
+                "last_build_number = IF(VALUES(last_build_at) >= last_build_at, VALUES(last_build_number), last_build_number), " +
+                "last_build_at = GREATEST(last_build_at, VALUES(last_build_at))", upserts);
+    }
+
+    /**
+     * Signatures with the most failing tests across the latest build of every job.
+     */
+    public List<Map<String, Object>> getTopSignatures(int limit) {
+        List<Object[]> rows = jenkinsFailureSignatureJobRepository.findTopSignaturesInLatestBuilds(
+                PageRequest.of(0, Math.max(1, Math.min(limit, 500))));
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> ids = rows.stream().map(row -> (Long) row[0]).collect(Collectors.toList());
+        Map<Long, JenkinsFailureSignature> signatures = jenkinsFailureSignatureRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(JenkinsFailureSignature::getId, signature -> signature));
+        Map<Long, List<Map<String, Object>>> jobsBySignature = new HashMap<>();
+        for (JenkinsFailureSignatureJob job : jenkinsFailureSignatureJobRepository.findInLatestBuildsBySignatureIdIn(ids)) {
+            jobsBySignature.computeIfAbsent(job.getSignatureId(), id -> new ArrayList<>()).add(Map.of(
+                    "jobName", job.getJobName(),
+                    "buildNumber", job.getLastBuildNumber(),
+                    "failingTests", job.getLastBuildCount()));
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Object[] row : rows) {
+            JenkinsFailureSignature signature = signatures.get((Long) row[0]);
+            if (signature == null) {
+                continue;
+            }
+            Map<String, Object> entry = toMap(signature);
+            entry.put("failingTests", ((Number) row[1]).longValue());
+            entry.put("affectedJobs", ((Number) row[2]).longValue());
+            entry.put("jobs", jobsBySignature.getOrDefault(signature.getId(), List.of()));
+            result.add(entry);
+        }
+        return result;
+    }
+
+    /**
+     * One signature with its counters in every job that has ever hit it.
+     */
+    public Optional<Map<String, Object>> getSignature(Long signatureId) {
+        return jenkinsFailureSignatureRepository.findById(signatureId).map(signature -> {
+            Map<String, Object> result = toMap(signature);
+            List<Map<String, Object>> jobs = new ArrayList<>();
+            long occurrences = 0;
+            for (JenkinsFailureSignatureJob job : jenkinsFailureSignatureJobRepository.findBySignatureIdOrderByLastSeenDesc(signatureId)) {
+                Map<String, Object> jobEntry = new HashMap<>();
+                jobEntry.put("jobName", job.getJobName());
+                jobEntry.put("occurrences", job.getOccurrences());
+                jobEntry.put("lastBuildNumber", job.getLastBuildNumber());
+                jobEntry.put("lastBuildCount", job.getLastBuildCount());
+                jobEntry.put("firstSeen", job.getFirstSeen());
+                jobEntry.put("lastSeen", job.getLastSeen());
+                jobs.add(jobEntry);
+                occurrences += job.getOccurrences() != null ? job.getOccurrences() : 0;
+            }
+            result.put("occurrences", occurrences);
+            result.put("jobs", jobs);
+            return result;
+        });
+    }
+
+    private Map<String, Object> toMap(JenkinsFailureSignature signature) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("signatureId", signature.getId());
+        map.put("exceptionType", signature.getExceptionType());
+        map.put("messagePattern", signature.getMessagePattern());
+        map.put("topFrames", signature.getTopFrames() == null || signature.getTopFrames().isEmpty() ?
+                List.of() : Arrays.asList(signature.getTopFrames().split("\n")));
+        map.put("sampleFailureDetailId", signature.getSampleFailureDetailId());
+        map.put("firstSeen", signature.getFirstSeen());
+        map.put("lastSeen", signature.getLastSeen());
+        return map;
+    }
+
+    private Map<String, Long> resolveSignatures(Map<String, Fingerprint> fingerprints, Map<String, Long> sampleDetails,
+                                                LocalDateTime seenAt) {
+        if (fingerprints.isEmpty()) {
+            return new HashMap<>();
+        }
+        Timestamp at = Timestamp.valueOf(seenAt);
+        List<Object[]> inserts = new ArrayList<>();
+        for (Fingerprint fingerprint : fingerprints.values()) {
+            inserts.add(new Object[]{fingerprint.sha256, fingerprint.exceptionType, fingerprint.messagePattern,
+                    fingerprint.topFrames, sampleDetails.get(fingerprint.sha256), at, at});
+        }
+        // New signatures are created, known ones only get their seen range widened
+        jdbcTemplate.batchUpdate("INSERT INTO jenkins_failure_signatures (fingerprint_sha256, exception_type, " +
+                "message_pattern, top_frames, sample_failure_detail_id, first_seen, last_seen) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE first_seen = LEAST(first_seen, VALUES(first_seen)), " +
+                "last_seen = GREATEST(last_seen, VALUES(last_seen)), " +
+                "sample_failure_detail_id = COALESCE(sample_failure_detail_id, VALUES(sample_failure_detail_id))", inserts);
+
+        Map<String, Long> ids = new HashMap<>();
+        for (Object[] row : jenkinsFailureSignatureRepository.findIdsByFingerprintIn(fingerprints.keySet())) {
+            ids.put((String) row[0], (Long) row[1]);
+        }
+        return ids;
+    }
+
+    private Fingerprint fingerprintOf(JenkinsTestCase testCase) {
+        Long detailId = testCase.getFailureDetailId();
+        if (detailId != null) {
+            synchronized (fingerprintsByDetail) {
+                Fingerprint cached = fingerprintsByDetail.get(detailId);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
+
+        String trace = testCase.getStackTrace() != null ? testCase.getStackTrace().strip() : "";
+        String firstTraceLine = trace.lines().findFirst().orElse("").strip();
+        String message = testCase.getErrorMessage();
+        if (message == null || message.isBlank()) {
+            int colon = firstTraceLine.indexOf(':');
+            message = colon >= 0 ? firstTraceLine.substring(colon + 1) : "";
+        }
+        message = message.strip().lines().findFirst().orElse("");
+
+        String exceptionType = exceptionTypeOf(firstTraceLine);
+        if (exceptionType == null) {
+            exceptionType = exceptionTypeOf(message);
+        }
+        if (exceptionType != null && message.startsWith(exceptionType)) {
+            message = message.substring(exceptionType.length()).replaceFirst("^:\\s*", "");
+        }
+
+        List<String> frames = new ArrayList<>(TOP_FRAMES);
+        for (String line : (Iterable<String>) trace.lines()::iterator) {
+            Matcher frame = FRAME.matcher(line);
+            if (frame.find() && IGNORED_FRAME_PREFIXES.stream().noneMatch(frame.group(1)::startsWith)) {
+                frames.add(frame.group(1));
+                if (frames.size() == TOP_FRAMES) {
+                    break;
+                }
+            }
+        }
+
+        Fingerprint fingerprint = new Fingerprint(exceptionType != null ? exceptionType : "Unknown",
+                normalizeMessage(message), String.join("\n", frames));
+        if (detailId != null) {
+            synchronized (fingerprintsByDetail) {
+                fingerprintsByDetail.put(detailId, fingerprint);
+            }
+        }
+        return fingerprint;
+    }
+
+    private String exceptionTypeOf(String line) {
+        Matcher matcher = EXCEPTION_TYPE.matcher(line);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    // Order matters: timestamps and ids contain digits that NUMBER would otherwise split up
+    private String normalizeMessage(String message) {
+        String normalized = UUID.matcher(message).replaceAll("<uuid>");
+        normalized = TIMESTAMP.matcher(normalized).replaceAll("<ts>");
+        normalized = OBJECT_ID.matcher(normalized).replaceAll("@<id>");
+        normalized = HEX_ID.matcher(normalized).replaceAll("<id>");
+        normalized = NUMBER.matcher(normalized).replaceAll("#");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").strip();
+        return normalized.length() > MAX_MESSAGE_CHARS ? normalized.substring(0, MAX_MESSAGE_CHARS) : normalized;
+    }
+
+    private static String sha256(String text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.qa.automation.service;
+
+import com.qa.automation.model.JenkinsRegressionEvent;
+import com.qa.automation.model.JenkinsResult;
+import com.qa.automation.model.JenkinsTestIdentity;
+import com.qa.automation.repository.JenkinsRegressionEventRepository;
+import com.qa.automation.repository.JenkinsTestIdentityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Regression events recorded as builds are ingested. The previous status of every test
+ * comes from the in-memory test history, so detection reads nothing from the database;
+ * the only statements are the replacement of the build's events.
+ */
+@Service
+public class JenkinsRegressionEventService {
+
+    @Autowired
+    private JenkinsRegressionEventRepository jenkinsRegressionEventRepository;
+
+    @Autowired
+    private JenkinsTestIdentityRepository jenkinsTestIdentityRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Store the events of one build, replacing the ones of an earlier ingest of it.
+     * Returns the number of events per type.
+     */
+    @Transactional
+    public Map<String, Integer> recordBuild(JenkinsResult jenkinsResult, List<JenkinsTestHistoryService.Transition> transitions) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        List<Object[]> inserts = new ArrayList<>();
+        Timestamp buildAt = Timestamp.valueOf(jenkinsResult.getBuildTimestamp() != null ?
+                jenkinsResult.getBuildTimestamp() : LocalDateTime.now());
+        for (JenkinsTestHistoryService.Transition transition : transitions) {
+            String eventType = eventTypeOf(transition);
+            if (eventType == null) {
+                continue;
+            }
+            counts.merge(eventType, 1, Integer::sum);
+            inserts.add(new Object[]{jenkinsResult.getJobName(), jenkinsResult.getId(), jenkinsResult.getBuildNumber(),
+                    transition.getTestIdentityId(), eventType, transition.getPreviousBuildNumber(),
+                    transition.getFailingStreak(), buildAt});
+        }
+
+        jdbcTemplate.update("DELETE FROM jenkins_regression_events WHERE jenkins_result_id = ?", jenkinsResult.getId());
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO jenkins_regression_events (job_name, jenkins_result_id, build_number, " +
+                    "test_identity_id, event_type, previous_build_number, failing_streak, build_timestamp) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", inserts);
+        }
+        return counts;
+    }
+
+    /**
+     * Events newest first, optionally narrowed to a job, build, event type and start time.
+     */
+    public List<Map<String, Object>> getEvents(String jobName, String buildNumber, String eventType, LocalDateTime since, int limit) {
+        List<JenkinsRegressionEvent> events = jenkinsRegressionEventRepository.findEvents(jobName, buildNumber,
+                eventType, since, PageRequest.of(0, Math.max(1, Math.min(limit, 5000))));
+        Set<Long> ids = events.stream().map(JenkinsRegressionEvent::getTestIdentityId).collect(Collectors.toSet());
+        Map<Long, JenkinsTestIdentity> identities = jenkinsTestIdentityRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(JenkinsTestIdentity::getId, Function.identity()));
+
+        List<Map<String, Object>> result = new ArrayList<>(events.size());
+        for (JenkinsRegressionEvent event : events) {
+            JenkinsTestIdentity identity = identities.get(event.getTestIdentityId());
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", event.getId());
+            entry.put("eventType", event.getEventType());
+            entry.put("jobName", event.getJobName());
+            entry.put("buildNumber", event.getBuildNumber());
+            entry.put("jenkinsResultId", event.getJenkinsResultId());
+            entry.put("testIdentityId", event.getTestIdentityId());
+            entry.put("className", identity != null ? identity.getClassName() : null);
+            entry.put("testName", identity != null ? identity.getTestName() : null);
+            entry.put("previousBuildNumber", event.getPreviousBuildNumber());
+            entry.put("failingStreak", event.getFailingStreak());
+            entry.put("buildTimestamp", event.getBuildTimestamp());
+            result.add(entry);
+        }
+        return result;
+    }
+
+    // A test failing on its first run counts as a new failure; passing after a pass is no event
+    private String eventTypeOf(JenkinsTestHistoryService.Transition transition) {
+        boolean failed = "FAILED".equals(transition.getStatus());
+        boolean previouslyFailed = "FAILED".equals(transition.getPreviousStatus());
+        if (failed) {
+            return previouslyFailed ? JenkinsRegressionEvent.STILL_FAILING : JenkinsRegressionEvent.NEW_FAILURE;
+        }
+        return previouslyFailed ? JenkinsRegressionEvent.FIXED : null;
+    }
+}
@@ -0,0 +1,400 @@
+package com.qa.automation.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resilience layer in front of every Jenkins request. A circuit breaker per host and
+ * endpoint class (JSON API, console log, artifacts) fails calls fast while Jenkins is
+ * erroring, and an AIMD limiter per host caps the requests in flight: the limit grows
+ * by one per window of healthy responses and is cut multiplicatively when requests
+ * fail or latency rises well above the observed baseline.
+ *
+ * Rejections surface as IOExceptions, which RestTemplate reports as ResourceAccessException.
+ */
+@Component
+public class JenkinsRequestGuard implements ClientHttpRequestInterceptor {
+
+    public enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    @Value("${jenkins.resilience.enabled:true}")
+    private boolean enabled;
+
+    // Circuit opens when this percentage of the last window-size calls failed
+    @Value("${jenkins.resilience.failure-rate-threshold:50}")
+    private int failureRateThreshold;
+
+    @Value("${jenkins.resilience.window-size:20}")
+    private int windowSize;
+
+    @Value("${jenkins.resilience.minimum-calls:10}")
+    private int minimumCalls;
+
+    // How long an open circuit rejects calls before letting a probe through
+    @Value("${jenkins.resilience.open-seconds:30}")
+    private long openSeconds;
+
+    @Value("${jenkins.resilience.initial-limit:16}")
+    private int initialLimit;
+
+    @Value("${jenkins.resilience.min-limit:2}")
+    private int minLimit;
+
+    @Value("${jenkins.resilience.max-limit:32}")
+    private int maxLimit;
+
+    // A response slower than baseline * tolerance counts as a congestion signal
+    @Value("${jenkins.resilience.latency-tolerance:2.0}")
+    private double latencyTolerance;
+
+    // Latencies below this never count as congestion, however low the baseline
+    @Value("${jenkins.resilience.latency-floor-ms:250}")
+    private long latencyFloorMs;
+
+    // How long a caller waits for a concurrency slot before giving up
+    @Value("${jenkins.resilience.acquire-timeout-ms:30000}")
+    private long acquireTimeoutMs;
+
+    private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!enabled) {
+            return execution.execute(request, body);
+        }
+
+        URI uri = request.getURI();
+        String host = hostOf(uri);
+        String endpointClass = endpointClassOf(uri.getPath());
+        Breaker breaker = breakers.computeIfAbsent(host + " " + endpointClass, key -> new Breaker(host, endpointClass));
+        Limiter limiter = limiters.computeIfAbsent(host, Limiter::new);
+
+        if (!breaker.tryAcquire()) {
+            throw new IOException("Jenkins circuit open for " + host + " " + endpointClass + " endpoints");
+        }
+        try {
+            if (!limiter.acquire(acquireTimeoutMs)) {
+                breaker.release();
+                throw new IOException("Jenkins concurrency limit of " + limiter.getLimit() + " reached for " + host);
+            }
+        } catch (InterruptedException e) {
+            breaker.release();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for a Jenkins request slot", e);
+        }
+
+        long start = System.nanoTime();
+        ClientHttpResponse response;
+        boolean failed;
+        try {
+            response = execution.execute(request, body);
+            failed = isFailure(response.getStatusCode());
+        } catch (IOException | RuntimeException e) {
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            breaker.onResult(false, latencyMs);
+            limiter.release(breaker, latencyMs, true);
+            throw e;
+        }
+
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        breaker.onResult(!failed, latencyMs);
+        // Streaming responses keep their slot until the body has been consumed and closed
+        return new GuardedResponse(response, () -> limiter.release(breaker, latencyMs, failed));
+    }
+
+    /**
+     * True while the JSON API circuit for the host of the given URL is open, so
+     * schedulers can hold back instead of queueing calls that would be rejected.
+     */
+    public boolean isCircuitOpen(String url) {
+        if (!enabled || url == null || url.isBlank()) {
+            return false;
+        }
+        Breaker breaker = breakers.get(hostOf(URI.create(url)) + " api");
+        return breaker != null && breaker.getState() == CircuitState.OPEN;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+
+        List<Map<String, Object>> hostStats = new ArrayList<>();
+        for (Limiter limiter : limiters.values()) {
+            hostStats.add(limiter.toMap());
+        }
+        stats.put("limiters", hostStats);
+
+        List<Map<String, Object>> circuitStats = new ArrayList<>();
+        for (Breaker breaker : breakers.values()) {
+            circuitStats.add(breaker.toMap());
+        }
+        stats.put("circuits", circuitStats);
+        return stats;
+    }
+
+    // 5xx and 429 indicate an overloaded or failing Jenkins; other 4xx are ordinary answers
+    private boolean isFailure(HttpStatusCode status) {
+        return status.is5xxServerError() || status.value() == 429;
+    }
+
+    private String hostOf(URI uri) {
+        return uri.getAuthority() != null ? uri.getAuthority() : String.valueOf(uri.getHost());
+    }
+
+    private String endpointClassOf(String path) {
+        if (path == null) {
+            return "other";
+        }
+        if (path.endsWith("/consoleText")) {
+            return "console";
+        }
+        if (path.contains("/artifact/") || path.endsWith(".zip") || path.endsWith(".xml")) {
+            return "artifact";
+        }
+        if (path.endsWith("/api/json") || path.endsWith("/api/xml")) {
+            return "api";
+        }
+        return "other";
+    }
+
+    /**
+     * Count-based sliding window breaker. While open, every call is rejected until
+     * open-seconds have passed; then a single probe decides whether to close again.
+     */
+    private class Breaker {
+        private final String host;
+        private final String endpointClass;
+        private final boolean[] outcomes = new boolean[Math.max(1, windowSize)];
+        private int recorded;
+        private int next;
+        private int failures;
+        private CircuitState state = CircuitState.CLOSED;
+        private long openedAt;
+        private boolean probeInFlight;
+        private long rejected;
+        private long timesOpened;
+        // Slowly rising minimum of observed latency for this endpoint class
+        private double baselineMs = -1;
+
+        Breaker(String host, String endpointClass) {
+            this.host = host;
+            this.endpointClass = endpointClass;
+        }
+
+        synchronized boolean tryAcquire() {
+            if (state == CircuitState.OPEN) {
+                if (System.currentTimeMillis() - openedAt < TimeUnit.SECONDS.toMillis(openSeconds)) {
+                    rejected++;
+                    return false;
+                }
+                state = CircuitState.HALF_OPEN;
+            }
+            if (state == CircuitState.HALF_OPEN) {
+                if (probeInFlight) {
+                    rejected++;
+                    return false;
+                }
+                probeInFlight = true;
+            }
+            return true;
+        }
+
+        // Give back a half-open probe that never reached Jenkins
+        synchronized void release() {
+            probeInFlight = false;
+        }
+
+        synchronized void onResult(boolean success, long latencyMs) {
+            if (success) {
+                baselineMs = baselineMs < 0 || latencyMs < baselineMs ? latencyMs : baselineMs + (latencyMs - baselineMs) * 0.01;
+            }
+
+            if (state == CircuitState.HALF_OPEN) {
+                probeInFlight = false;
+                if (success) {
+                    state = CircuitState.CLOSED;
+                    recorded = 0;
+                    next = 0;
+                    failures = 0;
+                    System.out.println("Jenkins circuit closed for " + host + " " + endpointClass + " endpoints");
+                } else {
+                    open();
+                }
+                return;
+            }
+
+            if (recorded == outcomes.length) {
+                if (!outcomes[next]) {
+                    failures--;
+                }
+            } else {
+                recorded++;
+            }
+            outcomes[next] = success;
+            next = (next + 1) % outcomes.length;
+            if (!success) {
+                failures++;
+            }
+
+            if (state == CircuitState.CLOSED && recorded >= minimumCalls &&
+                    failures * 100 >= failureRateThreshold * recorded) {
+                open();
+            }
+        }
+
+        synchronized boolean isSlow(long latencyMs) {
+            return baselineMs >= 0 && latencyMs > latencyFloorMs && latencyMs > baselineMs * latencyTolerance;
+        }
+
+        synchronized CircuitState getState() {
+            return state;
+        }
+
+        private void open() {
+            state = CircuitState.OPEN;
+            openedAt = System.currentTimeMillis();
+            timesOpened++;
+            System.err.println("Jenkins circuit opened for " + host + " " + endpointClass + " endpoints (" +
+                    failures + " of last " + recorded + " calls failed); rejecting calls for " + openSeconds + "s");
+        }
+
+        synchronized Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("host", host);
+            map.put("endpointClass", endpointClass);
+            map.put("state", state);
+            map.put("failureRatePercent", recorded > 0 ? failures * 100 / recorded : 0);
+            map.put("windowCalls", recorded);
+            map.put("rejected", rejected);
+            map.put("timesOpened", timesOpened);
+            map.put("openedAt", openedAt > 0 ? Instant.ofEpochMilli(openedAt).toString() : null);
+            map.put("baselineLatencyMs", baselineMs >= 0 ? Math.round(baselineMs) : null);
+            return map;
+        }
+    }
+
+    /**
+     * AIMD concurrency limit: +1 per limit's worth of healthy responses while the
+     * limit is actually in use, x0.7 on failure or congestion (at most once per
+     * second, so one burst of slow responses counts as a single signal).
+     */
+    private class Limiter {
+        private final String host;
+        private double limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+        private int inFlight;
+        private long lastDecreaseAt;
+        private long rejected;
+        private long decreases;
+
+        Limiter(String host) {
+            this.host = host;
+        }
+
+        synchronized boolean acquire(long timeoutMs) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            while (inFlight >= (int) limit) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    rejected++;
+                    return false;
+                }
+                wait(remaining);
+            }
+            inFlight++;
+            return true;
+        }
+
+        synchronized void release(Breaker breaker, long latencyMs, boolean failed) {
+            boolean saturated = inFlight >= (int) limit / 2;
+            inFlight--;
+
+            if (failed || breaker.isSlow(latencyMs)) {
+                long now = System.currentTimeMillis();
+                if (now - lastDecreaseAt >= 1000) {
+                    lastDecreaseAt = now;
+                    decreases++;
+                    limit = Math.max(minLimit, limit * 0.7);
+                }
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            notifyAll();
+        }
+
+        synchronized int getLimit() {
+            return (int) limit;
+        }
+
+        synchronized Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("host", host);
+            map.put("limit", (int) limit);
+            map.put("inFlight", inFlight);
+            map.put("decreases", decreases);
+            map.put("rejected", rejected);
+            return map;
+        }
+    }
+
+    /**
+     * Releases the concurrency slot exactly once, when RestTemplate closes the response.
+     */
+    private static class GuardedResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final Runnable onClose;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        GuardedResponse(ClientHttpResponse delegate, Runnable onClose) {
+            this.delegate = delegate;
+            this.onClose = onClose;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (closed.compareAndSet(false, true)) {
+                    onClose.run();
+                }
+            }
+        }
+    }
+}
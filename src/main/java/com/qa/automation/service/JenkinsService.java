@@ -1,23 +1,30 @@
 package com.qa.automation.service;
 
+import com.qa.automation.dto.JenkinsJobSnapshot;
+import com.qa.automation.dto.JenkinsSyncReport;
+import com.qa.automation.dto.JenkinsSyncReport.JobStatus;
 import com.qa.automation.model.JenkinsResult;
+import com.qa.automation.model.JenkinsSyncWatermark;
 import com.qa.automation.model.JenkinsTestCase;
 import com.qa.automation.repository.JenkinsResultRepository;
+import com.qa.automation.repository.JenkinsSyncWatermarkRepository;
 import com.qa.automation.repository.JenkinsTestCaseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 @Service
 public class JenkinsService {
@@ -28,20 +35,121 @@ public class JenkinsService {
     @Autowired
     private JenkinsTestCaseRepository jenkinsTestCaseRepository;
 
+    @Autowired
+    private JenkinsSyncWatermarkRepository jenkinsSyncWatermarkRepository;
+
     @Autowired
     private TestNGXMLParserService testNGXMLParserService;
 
+    @Autowired
+    private ConsoleLogParserService consoleLogParserService;
+
+    @Autowired
+    private JenkinsTestCaseWriter jenkinsTestCaseWriter;
+
+    @Autowired
+    private JenkinsFailureSignatureService jenkinsFailureSignatureService;
+
+    @Autowired
+    private JenkinsTestHistoryService jenkinsTestHistoryService;
+
+    @Autowired
+    private JenkinsRegressionEventService jenkinsRegressionEventService;
+
+    @Autowired
+    private JenkinsDurationSketchService jenkinsDurationSketchService;
+
+    @Autowired
+    private JenkinsApiClient jenkinsApiClient;
+
     @Value("${jenkins.url:}")
     private String jenkinsUrl;
 
-    @Value("${jenkins.username:}")
-    private String jenkinsUsername;
-
-    @Value("${jenkins.token:}")
-    private String jenkinsToken;
+    // Size of the worker pool that fans job syncs out, capped at the per-host limit below
+    @Value("${jenkins.sync.max-concurrency:4}")
+    private int syncMaxConcurrency;
+
+    // Cap on concurrent job syncs against a single Jenkins host
+    @Value("${jenkins.sync.max-concurrency-per-host:4}")
+    private int syncMaxConcurrencyPerHost;
+
+    @Value("${jenkins.sync.job-timeout-seconds:300}")
+    private long syncJobTimeoutSeconds;
+
+    // Levels of nested folder jobs[] included in each discovery request
+    @Value("${jenkins.discovery.depth:2}")
+    private int discoveryDepth;
+
+    // Deepest folder level discovery descends to
+    @Value("${jenkins.discovery.max-depth:10}")
+    private int discoveryMaxDepth;
+
+    // Folders expanded concurrently during discovery
+    @Value("${jenkins.discovery.parallelism:4}")
+    private int discoveryParallelism;
+
+    // Fields requested for a job's lastCompletedBuild, including the test result action counts
+    static final String BUILD_TREE =
+            "number,result,timestamp,url,duration,actions[urlName,totalCount,failCount,skipCount]";
+
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+    // Jobs currently being synced, shared by manual and scheduled syncs
+    private final Set<String> inFlightJobs = ConcurrentHashMap.newKeySet();
+    private int syncWorkers;
+    private ExecutorService syncExecutor;
+    private ScheduledExecutorService syncWatchdog;
+    // Runs discovery and waits on API-started runs so the request thread returns immediately
+    private ExecutorService syncCoordinator;
+    private ExecutorService discoveryExecutor;
+
+    private static final int RECENT_RUNS_KEPT = 20;
+    private final Object runLock = new Object();
+    private JenkinsSyncReport activeRun;
+    private final Map<String, JenkinsSyncReport> recentRuns = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JenkinsSyncReport> eldest) {
+            return size() > RECENT_RUNS_KEPT;
+        }
+    };
+    // Per run, the abort hook of every job currently on a worker, used by cancel
+    private final Map<String, Map<String, Runnable>> runningJobAborts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void startSyncWorkers() {
+        // All jobs live on the one configured Jenkins host: workers beyond its permits would only
+        // park on the semaphore while their job timeout runs
+        syncWorkers = Math.max(1, Math.min(syncMaxConcurrency, syncMaxConcurrencyPerHost));
+        AtomicInteger threadCounter = new AtomicInteger();
+        syncExecutor = Executors.newFixedThreadPool(syncWorkers, runnable -> {
+            Thread thread = new Thread(runnable, "jenkins-sync-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncWatchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jenkins-sync-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncCoordinator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jenkins-sync-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger discoveryCounter = new AtomicInteger();
+        discoveryExecutor = Executors.newFixedThreadPool(Math.max(1, discoveryParallelism), runnable -> {
+            Thread thread = new Thread(runnable, "jenkins-discovery-" + discoveryCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @PreDestroy
+    void stopSyncWorkers() {
+        syncCoordinator.shutdownNow();
+        discoveryExecutor.shutdownNow();
+        syncExecutor.shutdownNow();
+        syncWatchdog.shutdownNow();
+    }
 
     public List<JenkinsResult> getAllLatestResults() {
         try {
@@ -105,54 +213,296 @@ public class JenkinsService {
         return stats;
     }
 
-    public void syncAllJobsFromJenkins() {
+    /**
+     * Sync every Jenkins job on the bounded worker pool and wait for the run to
+     * finish. Wall time scales with the worker count rather than the number of jobs.
+     */
+    public JenkinsSyncReport syncAllJobsFromJenkins() {
+        JenkinsSyncReport report = startSyncRun();
         try {
-            List<String> jobNames = fetchJobNamesFromJenkins();
+            report.awaitFinished(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for Jenkins sync to finish", e);
+        }
+        if (report.getState() == JenkinsSyncReport.RunState.FAILED) {
+            throw new RuntimeException("Failed to sync jobs from Jenkins: " + report.getError());
+        }
+        return report;
+    }
 
-            for (String jobName : jobNames) {
-                try {
-                    syncJobResultFromJenkins(jobName);
-                } catch (Exception e) {
-                    System.err.println("Failed to sync job " + jobName + ": " + e.getMessage());
+    /**
+     * Start a full sync in the background and return its report straight away. If a
+     * run is already in progress, that run is returned instead of starting another.
+     */
+    public JenkinsSyncReport startSyncRun() {
+        JenkinsSyncReport report;
+        synchronized (runLock) {
+            if (activeRun != null && !activeRun.isDone()) {
+                return activeRun;
+            }
+            report = new JenkinsSyncReport(syncWorkers);
+            activeRun = report;
+            recentRuns.put(report.getRunId(), report);
+        }
+
+        syncCoordinator.execute(() -> {
+            List<JenkinsJobSnapshot> jobs;
+            try {
+                jobs = discoverJobs();
+            } catch (Exception e) {
+                System.err.println("Jenkins sync run " + report.getRunId() + " failed: " + e.getMessage());
+                report.markFailed(e.getMessage());
+                return;
+            }
+            report.start(jobs.size());
+            dispatch(jobs, report, false);
+
+            try {
+                report.awaitFinished(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            System.out.println("Jenkins sync run " + report.getRunId() + " " + report.getState() +
+                    " in " + report.getElapsedMs() + " ms - succeeded: " + report.getSucceededJobs() +
+                    ", failed: " + report.getFailedJobs() + ", timed out: " + report.getTimedOutJobs() +
+                    ", cancelled: " + report.getCancelledJobs() +
+                    ", duplicate fetches avoided: " + report.getSavedFetches());
+        });
+        return report;
+    }
+
+    public JenkinsSyncReport getSyncRun(String runId) {
+        synchronized (runLock) {
+            return recentRuns.get(runId);
+        }
+    }
+
+    public JenkinsSyncReport getActiveSyncRun() {
+        synchronized (runLock) {
+            return activeRun != null && !activeRun.isDone() ? activeRun : null;
+        }
+    }
+
+    /**
+     * Cancel a run: queued jobs are skipped and jobs on a worker are interrupted.
+     * Returns false when the run is unknown or already finished.
+     */
+    public boolean cancelSyncRun(String runId) {
+        JenkinsSyncReport report = getSyncRun(runId);
+        if (report == null || report.isDone()) {
+            return false;
+        }
+        report.requestCancel();
+        Map<String, Runnable> aborts = runningJobAborts.get(runId);
+        if (aborts != null) {
+            for (Runnable abort : new ArrayList<>(aborts.values())) {
+                abort.run();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Queue jobs on the sync pool without waiting for them to finish. Used by the
+     * background scheduler; the returned report fills in as jobs complete.
+     */
+    public JenkinsSyncReport submitJobSyncs(List<JenkinsJobSnapshot> jobs) {
+        JenkinsSyncReport report = new JenkinsSyncReport(jobs.size(), syncWorkers);
+        dispatch(jobs, report, false);
+        return report;
+    }
+
+    /**
+     * Like submitJobSyncs, for jobs known only by name: each worker fetches its
+     * job's lastCompletedBuild itself instead of relying on a discovery pass.
+     */
+    public JenkinsSyncReport submitJobSyncsByName(Collection<String> jobNames) {
+        List<JenkinsJobSnapshot> jobs = new ArrayList<>(jobNames.size());
+        for (String jobName : jobNames) {
+            jobs.add(new JenkinsJobSnapshot(jobName));
+        }
+        JenkinsSyncReport report = new JenkinsSyncReport(jobs.size(), syncWorkers);
+        dispatch(jobs, report, true);
+        return report;
+    }
+
+    public boolean isSyncInFlight(String jobName) {
+        return inFlightJobs.contains(jobName);
+    }
+
+    private void dispatch(List<JenkinsJobSnapshot> jobs, JenkinsSyncReport report, boolean fetchSnapshots) {
+        CountDownLatch remaining = new CountDownLatch(jobs.size());
+        if (jobs.isEmpty()) {
+            report.markFinished();
+            return;
+        }
+        for (JenkinsJobSnapshot job : jobs) {
+            syncExecutor.execute(() -> runJobSync(job, report, remaining, fetchSnapshots));
+        }
+    }
+
+    // Exactly one call per job; the last one closes the report
+    private void completeJob(JenkinsSyncReport report, CountDownLatch remaining, String jobName,
+                             JobStatus status, long durationMs, String message) {
+        report.record(jobName, status, durationMs, message);
+        remaining.countDown();
+        if (remaining.getCount() == 0) {
+            report.markFinished();
+            runningJobAborts.remove(report.getRunId());
+        }
+    }
+
+    private void runJobSync(JenkinsJobSnapshot job, JenkinsSyncReport report, CountDownLatch remaining,
+                            boolean fetchSnapshot) {
+        String jobName = job.getJobName();
+        long start = System.currentTimeMillis();
+        if (report.isCancelRequested()) {
+            completeJob(report, remaining, jobName, JobStatus.CANCELLED, 0, "Run cancelled");
+            return;
+        }
+        if (!inFlightJobs.add(jobName)) {
+            completeJob(report, remaining, jobName, JobStatus.SKIPPED, 0, "Sync already in progress");
+            return;
+        }
+
+        AtomicBoolean recorded = new AtomicBoolean(false);
+        Thread worker = Thread.currentThread();
+
+        // The watchdog and cancel record their outcome and interrupt the worker;
+        // whichever side flips 'recorded' first owns the outcome for this job.
+        BiConsumer<JobStatus, String> abort = (status, message) -> {
+            synchronized (recorded) {
+                if (recorded.compareAndSet(false, true)) {
+                    completeJob(report, remaining, jobName, status, System.currentTimeMillis() - start, message);
+                    worker.interrupt();
                 }
             }
+        };
+        ScheduledFuture<?> timeout = syncWatchdog.schedule(
+                () -> abort.accept(JobStatus.TIMED_OUT, "Timed out after " + syncJobTimeoutSeconds + "s"),
+                syncJobTimeoutSeconds, TimeUnit.SECONDS);
+        Map<String, Runnable> aborts = runningJobAborts.computeIfAbsent(report.getRunId(),
+                runId -> new ConcurrentHashMap<>());
+        aborts.put(jobName, () -> abort.accept(JobStatus.CANCELLED, "Run cancelled"));
+        report.jobStarted();
+
+        Semaphore permit = hostPermits.computeIfAbsent(jenkinsHost(),
+                host -> new Semaphore(Math.max(1, syncMaxConcurrencyPerHost)));
+        JobStatus status = JobStatus.FAILED;
+        String message = null;
+        try {
+            // Cancel may have landed between the first check and registering the abort hook
+            if (report.isCancelRequested()) {
+                throw new InterruptedException();
+            }
+            permit.acquire();
+            try (JenkinsApiClient.FetchScope fetches = jenkinsApiClient.openFetchScope()) {
+                status = syncJob(fetchSnapshot ? fetchJobSnapshot(jobName) : job);
+                report.addSavedFetches(fetches.getSavedFetches());
+            } finally {
+                permit.release();
+            }
+        } catch (InterruptedException e) {
+            message = "Interrupted";
         } catch (Exception e) {
-            throw new RuntimeException("Failed to sync jobs from Jenkins: " + e.getMessage(), e);
+            message = e.getMessage();
+            System.err.println("Failed to sync job " + jobName + ": " + e.getMessage());
+        } finally {
+            timeout.cancel(false);
+            aborts.remove(jobName);
+            report.jobEnded();
+            synchronized (recorded) {
+                if (recorded.compareAndSet(false, true)) {
+                    if (report.isCancelRequested() && "Interrupted".equals(message)) {
+                        status = JobStatus.CANCELLED;
+                    }
+                    completeJob(report, remaining, jobName, status, System.currentTimeMillis() - start, message);
+                }
+                // Don't leak a watchdog or cancel interrupt into the next job on this pool thread
+                Thread.interrupted();
+            }
+            inFlightJobs.remove(jobName);
         }
     }
 
-    public void syncJobResultFromJenkins(String jobName) {
+    private String jenkinsHost() {
         try {
-            JsonNode buildInfo = fetchLatestCompletedBuildInfo(jobName);
-            if (buildInfo == null) {
-                System.out.println("No completed builds found for job: " + jobName);
-                return;
-            }
+            String host = URI.create(jenkinsUrl.trim()).getHost();
+            return host != null ? host : jenkinsUrl;
+        } catch (Exception e) {
+            return jenkinsUrl;
+        }
+    }
 
-            String buildNumber = buildInfo.get("number").asText();
-            String buildStatus = buildInfo.get("result") != null ?
-                    buildInfo.get("result").asText() : "IN_PROGRESS";
+    public void syncJobResultFromJenkins(String jobName) {
+        if (!inFlightJobs.add(jobName)) {
+            System.out.println("Sync already in progress for job: " + jobName);
+            return;
+        }
+        try (JenkinsApiClient.FetchScope fetches = jenkinsApiClient.openFetchScope()) {
+            syncJob(fetchJobSnapshot(jobName));
+            System.out.println("Synced job " + jobName + " (" + fetches.getSavedFetches() + " duplicate Jenkins fetches avoided)");
+        } catch (Exception e) {
+            System.err.println("Failed to sync job result for " + jobName + ": " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            inFlightJobs.remove(jobName);
+        }
+    }
 
-            Optional<JenkinsResult> existingResult = jenkinsResultRepository
-                    .findByJobNameAndBuildNumber(jobName, buildNumber);
+    /**
+     * Sync one specific build, as reported by a build notification. Returns SKIPPED
+     * without touching Jenkins when the job is already being synced.
+     */
+    public JobStatus syncBuild(String jobName, String buildNumber) throws Exception {
+        if (!inFlightJobs.add(jobName)) {
+            return JobStatus.SKIPPED;
+        }
+        try (JenkinsApiClient.FetchScope fetches = jenkinsApiClient.openFetchScope()) {
+            return syncJob(fetchBuildSnapshot(jobName, buildNumber));
+        } finally {
+            inFlightJobs.remove(jobName);
+        }
+    }
 
-            if (existingResult.isPresent() &&
-                    existingResult.get().getBuildStatus().equals(buildStatus)) {
-                System.out.println("Build " + buildNumber + " for job " + jobName + " is already up to date");
-                return;
-            }
+    /**
+     * Per-job stage. The snapshot already carries build metadata and, usually, test
+     * counts, so Jenkins is only contacted again when the build needs ingesting.
+     */
+    private JobStatus syncJob(JenkinsJobSnapshot job) throws Exception {
+        String jobName = job.getJobName();
+        if (!job.hasBuild()) {
+            System.out.println("No completed builds found for job: " + jobName);
+            return JobStatus.NO_BUILDS;
+        }
+
+        String buildNumber = job.getBuildNumber();
+        String buildStatus = job.getBuildStatus();
+        long timestamp = job.getBuildTimestamp();
+
+        // Cheapest check first: nothing has changed since the last successful sync
+        JenkinsSyncWatermark watermark = jenkinsSyncWatermarkRepository.findByJobName(jobName)
+                .orElseGet(() -> new JenkinsSyncWatermark(jobName));
+        if (watermark.matches(buildNumber, buildStatus, timestamp)) {
+            System.out.println("Build " + buildNumber + " for job " + jobName + " is already up to date");
+            return JobStatus.UP_TO_DATE;
+        }
+
+        Optional<JenkinsResult> existingResult = jenkinsResultRepository
+                .findByJobNameAndBuildNumber(jobName, buildNumber);
 
-            JenkinsResult jenkinsResult = existingResult.orElse(new JenkinsResult());
-            jenkinsResult.setJobName(jobName);
-            jenkinsResult.setBuildNumber(buildNumber);
-            jenkinsResult.setBuildStatus(buildStatus);
-            jenkinsResult.setBuildUrl(buildInfo.get("url").asText());
+        if (existingResult.isPresent() &&
+                existingResult.get().getBuildStatus().equals(buildStatus)) {
+            System.out.println("Build " + buildNumber + " for job " + jobName + " is already up to date");
+            advanceWatermark(watermark, buildNumber, buildStatus, timestamp);
+            return JobStatus.UP_TO_DATE;
+        }
 
-            long timestamp = buildInfo.get("timestamp").asLong();
-            jenkinsResult.setBuildTimestamp(
-                    LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp),
-                            java.time.ZoneId.systemDefault()));
+        JenkinsResult jenkinsResult = applySnapshot(existingResult.orElse(new JenkinsResult()), job);
 
+        if (!job.hasTestCounts()) {
             // Try TestNG results first for counts
             JsonNode testNGResults = fetchTestNGResults(jobName, buildNumber);
             if (testNGResults != null) {
@@ -163,33 +513,71 @@ public class JenkinsService {
                     processStandardTestResults(jenkinsResult, standardResults);
                 }
             }
+        }
 
-            JenkinsResult savedResult = jenkinsResultRepository.save(jenkinsResult);
-            System.out.println("Saved Jenkins result for job: " + jobName + ", build: " + buildNumber);
+        JenkinsResult savedResult = jenkinsResultRepository.save(jenkinsResult);
+        System.out.println("Saved Jenkins result for job: " + jobName + ", build: " + buildNumber);
 
-            // Now fetch individual test cases using Jenkins Test Results API
-            fetchAndSaveIndividualTestCases(savedResult);
+        // Now fetch individual test cases using Jenkins Test Results API
+        fetchAndSaveIndividualTestCases(savedResult);
 
-        } catch (Exception e) {
-            System.err.println("Failed to sync job result for " + jobName + ": " + e.getMessage());
-            e.printStackTrace();
+        advanceWatermark(watermark, buildNumber, buildStatus, timestamp);
+        return JobStatus.SYNCED;
+    }
+
+    /**
+     * Copy build metadata, and test counts when the snapshot carries them, onto a result.
+     */
+    JenkinsResult applySnapshot(JenkinsResult jenkinsResult, JenkinsJobSnapshot job) {
+        jenkinsResult.setJobName(job.getJobName());
+        jenkinsResult.setBuildNumber(job.getBuildNumber());
+        jenkinsResult.setBuildStatus(job.getBuildStatus());
+        jenkinsResult.setBuildUrl(job.getBuildUrl());
+        if ("Unknown".equals(jenkinsResult.getFrequencyDisplay())) {
+            jenkinsResult.inferJobFrequency();
+        }
+        jenkinsResult.setBuildTimestamp(
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(job.getBuildTimestamp()),
+                        java.time.ZoneId.systemDefault()));
+        if (job.hasTestCounts()) {
+            applyTestCounts(jenkinsResult, job);
         }
+        return jenkinsResult;
     }
 
-    private void fetchAndSaveIndividualTestCases(JenkinsResult jenkinsResult) {
+    private void applyTestCounts(JenkinsResult jenkinsResult, JenkinsJobSnapshot job) {
+        int totalCount = job.getTotalCount();
+        int failCount = job.getFailCount() != null ? job.getFailCount() : 0;
+        int skipCount = job.getSkipCount() != null ? job.getSkipCount() : 0;
+
+        jenkinsResult.setTotalTests(totalCount);
+        jenkinsResult.setPassedTests(Math.max(0, totalCount - failCount - skipCount));
+        jenkinsResult.setFailedTests(failCount);
+        jenkinsResult.setSkippedTests(skipCount);
+    }
+
+    private void advanceWatermark(JenkinsSyncWatermark watermark, String buildNumber,
+                                  String buildStatus, long timestamp) {
         try {
-            // Clear existing test cases
-            List<JenkinsTestCase> existingTestCases = jenkinsTestCaseRepository
-                    .findByJenkinsResultId(jenkinsResult.getId());
-            if (!existingTestCases.isEmpty()) {
-                jenkinsTestCaseRepository.deleteAll(existingTestCases);
-                System.out.println("Deleted " + existingTestCases.size() + " existing test cases for job: " + jenkinsResult.getJobName());
-            }
+            watermark.setLastBuildNumber(buildNumber);
+            watermark.setLastBuildStatus(buildStatus);
+            watermark.setLastBuildTimestamp(timestamp);
+            watermark.setLastSyncedAt(LocalDateTime.now());
+            jenkinsSyncWatermarkRepository.save(watermark);
+        } catch (Exception e) {
+            // A concurrent sync of the same job may have inserted it first; the next poll catches up
+            System.err.println("Failed to update sync watermark for job " + watermark.getJobName() + ": " + e.getMessage());
+        }
+    }
 
+    void fetchAndSaveIndividualTestCases(JenkinsResult jenkinsResult) {
+        try {
+            // The parsers stream, but the build's cases are still collected here: the delta upsert
+            // and the ingest indexes reconcile against the whole build, so this list is O(tests per build)
             List<JenkinsTestCase> testCases = new ArrayList<>();
 
             // PRIORITY 1: Try to extract from TestNG XML files (most reliable)
-            testCases.addAll(testNGXMLParserService.extractTestCasesFromXMLFiles(jenkinsResult));
+            testNGXMLParserService.extractTestCasesFromXMLFiles(jenkinsResult, testCases::add);
 
             if (testCases.isEmpty()) {
                 System.out.println("No test cases found in XML files, trying Jenkins Test Report API...");
@@ -204,21 +592,24 @@ public class JenkinsService {
                     System.out.println("No Jenkins test report found, trying console log parsing...");
 
                     // PRIORITY 3: Fallback to console log parsing
-                    testCases.addAll(parseTestCasesFromConsoleLog(jenkinsResult));
+                    parseTestCasesFromConsoleLog(jenkinsResult, testCases);
                 }
             }
 
             if (!testCases.isEmpty()) {
-                List<JenkinsTestCase> savedTestCases = jenkinsTestCaseRepository.saveAll(testCases);
-                System.out.println("Successfully saved " + savedTestCases.size() + " test cases for job: " +
+                // Apply only the delta against what is already stored for this build
+                jenkinsTestCaseWriter.upsert(jenkinsResult, testCases);
+                indexIngestedBuild(jenkinsResult, testCases);
+                System.out.println("Successfully saved " + testCases.size() + " test cases for job: " +
                         jenkinsResult.getJobName() + " build: " + jenkinsResult.getBuildNumber());
 
                 // Log sample test cases
-                for (int i = 0; i < Math.min(3, savedTestCases.size()); i++) {
-                    JenkinsTestCase tc = savedTestCases.get(i);
+                for (int i = 0; i < Math.min(3, testCases.size()); i++) {
+                    JenkinsTestCase tc = testCases.get(i);
                     System.out.println("Sample test case " + (i+1) + ": " + tc.getClassName() + "." + tc.getTestName() + " - " + tc.getStatus());
                 }
             } else {
+                // Existing rows are kept: an empty extraction is more likely a transient fetch problem
                 System.out.println("No individual test cases could be extracted for job: " + jenkinsResult.getJobName());
                 System.out.println("This may indicate that:");
                 System.out.println("1. TestNG XML files are not archived as Jenkins artifacts");
@@ -232,24 +623,46 @@ public class JenkinsService {
         }
     }
 
-    private JsonNode fetchJenkinsTestReport(String jobName, String buildNumber) {
-        String url = jenkinsUrl + "/job/" + jobName + "/" + buildNumber + "/testReport/api/json";
-
+    // Ingest-time indexes are derived data; a failure there must not fail the sync
+    private void indexIngestedBuild(JenkinsResult jenkinsResult, List<JenkinsTestCase> testCases) {
         try {
-            HttpHeaders headers = createAuthHeaders();
-            HttpEntity<String> entity = new HttpEntity<>(headers);
+            jenkinsFailureSignatureService.recordBuild(jenkinsResult, testCases);
+        } catch (Exception e) {
+            System.err.println("Failed to index failure signatures for job: " + jenkinsResult.getJobName() +
+                    " build: " + jenkinsResult.getBuildNumber() + ": " + e.getMessage());
+        }
+        List<JenkinsTestHistoryService.Transition> transitions = new ArrayList<>();
+        try {
+            transitions = jenkinsTestHistoryService.recordBuild(jenkinsResult, testCases);
+        } catch (Exception e) {
+            System.err.println("Failed to update test history for job: " + jenkinsResult.getJobName() +
+                    " build: " + jenkinsResult.getBuildNumber() + ": " + e.getMessage());
+        }
+        try {
+            Map<String, Integer> events = jenkinsRegressionEventService.recordBuild(jenkinsResult, transitions);
+            if (!events.isEmpty()) {
+                System.out.println("Regression events for job: " + jenkinsResult.getJobName() +
+                        " build: " + jenkinsResult.getBuildNumber() + ": " + events);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to record regression events for job: " + jenkinsResult.getJobName() +
+                    " build: " + jenkinsResult.getBuildNumber() + ": " + e.getMessage());
+        }
+        try {
+            jenkinsDurationSketchService.recordBuild(jenkinsResult, testCases);
+        } catch (Exception e) {
+            System.err.println("Failed to update duration sketches for job: " + jenkinsResult.getJobName() +
+                    " build: " + jenkinsResult.getBuildNumber() + ": " + e.getMessage());
+        }
+    }
 
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.GET, entity, String.class);
+    private JsonNode fetchJenkinsTestReport(String jobName, String buildNumber) {
+        String url = JenkinsUrls.build(jenkinsUrl, jobName, buildNumber) + "/testReport/api/json";
 
-            if (response.getStatusCode().is2xxSuccessful()) {
-                JsonNode result = objectMapper.readTree(response.getBody());
-                System.out.println("Jenkins test report keys: " + getJsonKeys(result));
-                return result;
-            } else {
-                System.out.println("Jenkins test report not available (HTTP " + response.getStatusCodeValue() + ")");
-                return null;
-            }
+        try {
+            JsonNode result = jenkinsApiClient.getJson(url);
+            System.out.println("Jenkins test report keys: " + getJsonKeys(result));
+            return result;
         } catch (Exception e) {
             System.err.println("Failed to fetch Jenkins test report for " + jobName + " build " + buildNumber + ": " + e.getMessage());
             return null;
@@ -340,15 +753,11 @@ public class JenkinsService {
 
             // Extract error details
             if (testCase.has("errorDetails") && !testCase.get("errorDetails").isNull()) {
-                String errorMessage = testCase.get("errorDetails").asText();
-                tc.setErrorMessage(errorMessage.length() > 2000 ?
-                        errorMessage.substring(0, 2000) + "..." : errorMessage);
+                tc.setErrorMessage(testCase.get("errorDetails").asText());
             }
 
             if (testCase.has("errorStackTrace") && !testCase.get("errorStackTrace").isNull()) {
-                String stackTrace = testCase.get("errorStackTrace").asText();
-                tc.setStackTrace(stackTrace.length() > 5000 ?
-                        stackTrace.substring(0, 5000) + "..." : stackTrace);
+                tc.setStackTrace(testCase.get("errorStackTrace").asText());
             }
 
             return tc;
@@ -359,86 +768,12 @@ public class JenkinsService {
         }
     }
 
-    private List<JenkinsTestCase> parseTestCasesFromConsoleLog(JenkinsResult jenkinsResult) {
-        List<JenkinsTestCase> testCases = new ArrayList<>();
-
-        try {
-            String consoleUrl = jenkinsUrl + "/job/" + jenkinsResult.getJobName() + "/" +
-                    jenkinsResult.getBuildNumber() + "/consoleText";
-
-            HttpHeaders headers = createAuthHeaders();
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(
-                    consoleUrl, HttpMethod.GET, entity, String.class);
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                String consoleLog = response.getBody();
-                System.out.println("Parsing console log for test results...");
-
-                String[] lines = consoleLog.split("\n");
-                for (String line : lines) {
-                    // Look for TestNG result patterns
-                    if (line.contains("testcases.") && (line.contains("PASSED") || line.contains("FAILED") || line.contains("SKIPPED"))) {
-                        JenkinsTestCase testCase = parseTestCaseFromLogLine(jenkinsResult, line);
-                        if (testCase != null) {
-                            testCases.add(testCase);
-                        }
-                    }
-                }
-
-                System.out.println("Extracted " + testCases.size() + " test cases from console log");
-            }
-
-        } catch (Exception e) {
-            System.err.println("Error parsing console log: " + e.getMessage());
-        }
-
-        return testCases;
-    }
-
-    private JenkinsTestCase parseTestCaseFromLogLine(JenkinsResult jenkinsResult, String line) {
-        try {
-            JenkinsTestCase testCase = new JenkinsTestCase();
-            testCase.setJenkinsResult(jenkinsResult);
-
-            // Parse patterns like: "testcases.AccountReceivableIT.methodName ... PASSED"
-            String status = "UNKNOWN";
-            if (line.contains("PASSED")) {
-                status = "PASSED";
-            } else if (line.contains("FAILED")) {
-                status = "FAILED";
-            } else if (line.contains("SKIPPED")) {
-                status = "SKIPPED";
-            }
-            testCase.setStatus(status);
-
-            // Extract class and method name
-            if (line.contains("testcases.")) {
-                int start = line.indexOf("testcases.");
-                String testInfo = line.substring(start);
-
-                // Find the end of the test identifier
-                String[] parts = testInfo.split("\\s+");
-                if (parts.length > 0) {
-                    String fullTestName = parts[0];
-                    int lastDot = fullTestName.lastIndexOf(".");
-                    if (lastDot > 0) {
-                        testCase.setClassName(fullTestName.substring(0, lastDot));
-                        testCase.setTestName(fullTestName.substring(lastDot + 1));
-                    } else {
-                        testCase.setClassName("testcases.AccountReceivableIT");
-                        testCase.setTestName(fullTestName);
-                    }
-                }
-            }
-
-            return testCase;
-
-        } catch (Exception e) {
-            System.err.println("Error parsing test case from log line: " + e.getMessage());
-            return null;
-        }
+    private int parseTestCasesFromConsoleLog(JenkinsResult jenkinsResult, List<JenkinsTestCase> testCases) {
+        System.out.println("Parsing console log for test results...");
+        int extracted = consoleLogParserService.extractTestCases(jenkinsResult.getJobName(),
+                jenkinsResult.getBuildNumber(), jenkinsResult, testCases::add);
+        System.out.println("Extracted " + extracted + " test cases from console log");
+        return extracted;
     }
 
     private String normalizeJenkinsStatus(String status) {
@@ -464,74 +799,148 @@ public class JenkinsService {
         return keys;
     }
 
-    private List<String> fetchJobNamesFromJenkins() {
-        String url = jenkinsUrl + "/api/json?tree=jobs[name]";
-
+    /**
+     * Discovery stage. Each tree query returns jobs together with their
+     * lastCompletedBuild and test action counts for discoveryDepth levels of folders.
+     * Folders and multibranch projects deeper than that are expanded level by level,
+     * in parallel, until discoveryMaxDepth. Jobs are keyed by their full path
+     * ("folder/project/branch") so JenkinsUrls can rebuild /job/.../job/... URLs.
+     */
+    List<JenkinsJobSnapshot> discoverJobs() {
+        int levelsPerRequest = Math.max(1, discoveryDepth);
+        List<JenkinsJobSnapshot> jobs = Collections.synchronizedList(new ArrayList<>());
+        List<String> frontier;
         try {
-            HttpHeaders headers = createAuthHeaders();
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.GET, entity, String.class);
+            JsonNode root = jenkinsApiClient.getJson(jenkinsUrl + "/api/json?tree=" + discoveryTree(levelsPerRequest));
+            frontier = new ArrayList<>();
+            collectJobs(root.get("jobs"), levelsPerRequest, jobs, frontier);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch job names from Jenkins", e);
+        }
 
-            JsonNode root = objectMapper.readTree(response.getBody());
-            JsonNode jobs = root.get("jobs");
+        int depth = levelsPerRequest;
+        int requests = 1;
+        while (!frontier.isEmpty()) {
+            if (depth >= discoveryMaxDepth) {
+                System.err.println("Jenkins discovery stopped at depth " + depth + "; " + frontier.size() +
+                        " folders not expanded: " + frontier);
+                break;
+            }
+            List<Future<List<String>>> expansions = new ArrayList<>();
+            for (String folder : frontier) {
+                expansions.add(discoveryExecutor.submit(() -> expandFolder(folder, levelsPerRequest, jobs)));
+            }
+            requests += frontier.size();
 
-            List<String> jobNames = new ArrayList<>();
-            if (jobs.isArray()) {
-                for (JsonNode job : jobs) {
-                    jobNames.add(job.get("name").asText());
+            List<String> next = new ArrayList<>();
+            for (int i = 0; i < expansions.size(); i++) {
+                try {
+                    next.addAll(expansions.get(i).get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted during Jenkins discovery", e);
+                } catch (ExecutionException e) {
+                    // One unreadable folder should not hide the rest of Jenkins
+                    System.err.println("Failed to expand Jenkins folder " + frontier.get(i) + ": " +
+                            e.getCause().getMessage());
                 }
             }
-
-            System.out.println("Found " + jobNames.size() + " jobs in Jenkins");
-            return jobNames;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch job names from Jenkins", e);
+            frontier = next;
+            depth += levelsPerRequest;
         }
+
+        System.out.println("Found " + jobs.size() + " jobs in Jenkins (" + requests + " discovery requests)");
+        return new ArrayList<>(jobs);
     }
 
-    private JsonNode fetchLatestCompletedBuildInfo(String jobName) {
-        String url = jenkinsUrl + "/job/" + jobName + "/api/json";
+    private List<String> expandFolder(String folder, int levels, List<JenkinsJobSnapshot> jobs) throws Exception {
+        JsonNode node = jenkinsApiClient.getJson(JenkinsUrls.job(jenkinsUrl, folder) + "/api/json?tree=" + discoveryTree(levels));
+        List<String> frontier = new ArrayList<>();
+        collectJobs(node.get("jobs"), levels, jobs, frontier);
+        return frontier;
+    }
 
-        try {
-            HttpHeaders headers = createAuthHeaders();
-            HttpEntity<String> entity = new HttpEntity<>(headers);
+    private String discoveryTree(int depth) {
+        String jobFields = "name,fullName,lastCompletedBuild[" + BUILD_TREE + "]";
+        // At the deepest level only child names are requested, which is enough to spot a folder
+        String tree = jobFields + ",jobs[name]";
+        for (int level = 1; level < depth; level++) {
+            tree = jobFields + ",jobs[" + tree + "]";
+        }
+        return "jobs[" + tree + "]";
+    }
 
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.GET, entity, String.class);
+    private void collectJobs(JsonNode jobs, int levelsLeft, List<JenkinsJobSnapshot> result, List<String> frontier) {
+        if (jobs == null || !jobs.isArray()) {
+            return;
+        }
+        for (JsonNode job : jobs) {
+            String jobName = job.hasNonNull("fullName") ? job.get("fullName").asText() : job.path("name").asText();
+            if (job.has("jobs")) {
+                // Folder or multibranch project: children are inline within the request depth
+                if (levelsLeft > 1) {
+                    collectJobs(job.get("jobs"), levelsLeft - 1, result, frontier);
+                } else if (job.get("jobs").size() > 0) {
+                    frontier.add(jobName);
+                }
+            } else if (job.has("lastCompletedBuild")) {
+                result.add(toSnapshot(jobName, job.get("lastCompletedBuild")));
+            }
+        }
+    }
+
+    JenkinsJobSnapshot toSnapshot(String jobName, JsonNode build) {
+        JenkinsJobSnapshot snapshot = new JenkinsJobSnapshot(jobName);
+        if (build == null || build.isNull()) {
+            return snapshot;
+        }
 
-            JsonNode jobInfo = objectMapper.readTree(response.getBody());
+        snapshot.setBuildNumber(build.get("number").asText());
+        snapshot.setBuildStatus(build.hasNonNull("result") ? build.get("result").asText() : "IN_PROGRESS");
+        snapshot.setBuildUrl(build.path("url").asText(null));
+        snapshot.setBuildTimestamp(build.path("timestamp").asLong());
+        if (build.hasNonNull("duration")) {
+            snapshot.setBuildDuration(build.get("duration").asLong());
+        }
 
-            JsonNode lastCompletedBuild = jobInfo.get("lastCompletedBuild");
-            if (lastCompletedBuild == null || lastCompletedBuild.isNull()) {
-                return null;
+        // Prefer the TestNG action when both TestNG and JUnit results were published
+        JsonNode testAction = null;
+        for (JsonNode action : build.path("actions")) {
+            if (!action.has("totalCount")) {
+                continue;
+            }
+            if (testAction == null || "testngreports".equals(action.path("urlName").asText())) {
+                testAction = action;
             }
+        }
+        if (testAction != null) {
+            snapshot.setTotalCount(testAction.get("totalCount").asInt());
+            snapshot.setFailCount(testAction.path("failCount").asInt());
+            snapshot.setSkipCount(testAction.path("skipCount").asInt());
+        }
+        return snapshot;
+    }
 
-            int buildNumber = lastCompletedBuild.get("number").asInt();
+    /**
+     * Single-job variant of discovery, used when syncing one job on demand or by name.
+     */
+    private JenkinsJobSnapshot fetchJobSnapshot(String jobName) throws Exception {
+        String url = JenkinsUrls.job(jenkinsUrl, jobName) + "/api/json?tree=lastCompletedBuild[" + BUILD_TREE + "]";
 
-            String buildUrl = jenkinsUrl + "/job/" + jobName + "/" + buildNumber + "/api/json";
-            ResponseEntity<String> buildResponse = restTemplate.exchange(
-                    buildUrl, HttpMethod.GET, entity, String.class);
+        JsonNode jobInfo = jenkinsApiClient.getJson(url);
+        return toSnapshot(jobName, jobInfo.get("lastCompletedBuild"));
+    }
 
-            return objectMapper.readTree(buildResponse.getBody());
-        } catch (Exception e) {
-            System.err.println("Failed to fetch build info for job: " + jobName + " - " + e.getMessage());
-            return null;
-        }
+    private JenkinsJobSnapshot fetchBuildSnapshot(String jobName, String buildNumber) throws Exception {
+        String url = JenkinsUrls.build(jenkinsUrl, jobName, buildNumber) + "/api/json?tree=" + BUILD_TREE;
+        return toSnapshot(jobName, jenkinsApiClient.getJson(url));
     }
 
     private JsonNode fetchTestNGResults(String jobName, String buildNumber) {
-        String url = jenkinsUrl + "/job/" + jobName + "/" + buildNumber + "/testngreports/api/json";
+        String url = JenkinsUrls.build(jenkinsUrl, jobName, buildNumber) + "/testngreports/api/json";
 
         try {
-            HttpHeaders headers = createAuthHeaders();
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.GET, entity, String.class);
-
-            JsonNode result = objectMapper.readTree(response.getBody());
+            JsonNode result = jenkinsApiClient.getJson(url);
             System.out.println("Successfully fetched TestNG results for " + jobName + " build " + buildNumber);
             return result;
         } catch (Exception e) {
@@ -542,16 +951,10 @@ public class JenkinsService {
     }
 
     private JsonNode fetchStandardTestResults(String jobName, String buildNumber) {
-        String url = jenkinsUrl + "/job/" + jobName + "/" + buildNumber + "/testReport/api/json";
+        String url = JenkinsUrls.build(jenkinsUrl, jobName, buildNumber) + "/testReport/api/json";
 
         try {
-            HttpHeaders headers = createAuthHeaders();
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.GET, entity, String.class);
-
-            return objectMapper.readTree(response.getBody());
+            return jenkinsApiClient.getJson(url);
         } catch (Exception e) {
             System.err.println("No standard test results available for job: " + jobName +
                     " build: " + buildNumber);
@@ -600,26 +1003,10 @@ public class JenkinsService {
         }
     }
 
-    private HttpHeaders createAuthHeaders() {
-        HttpHeaders headers = new HttpHeaders();
-        if (jenkinsUsername != null && !jenkinsUsername.isEmpty() &&
-                jenkinsToken != null && !jenkinsToken.isEmpty()) {
-
-            String auth = jenkinsUsername + ":" + jenkinsToken;
-            String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
-            headers.set("Authorization", "Basic " + encodedAuth);
-        }
-        return headers;
-    }
-
     public boolean testJenkinsConnection() {
         try {
             String url = jenkinsUrl + "/api/json";
-            HttpHeaders headers = createAuthHeaders();
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.GET, entity, String.class);
+            ResponseEntity<String> response = jenkinsApiClient.get(url);
 
             boolean connected = response.getStatusCode().is2xxSuccessful();
             System.out.println("Jenkins connection test: " + (connected ? "SUCCESS" : "FAILED"));
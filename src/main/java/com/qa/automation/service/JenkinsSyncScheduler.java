@@ -0,0 +1,152 @@
+package com.qa.automation.service;
+
+import com.qa.automation.dto.JenkinsJobSnapshot;
+import com.qa.automation.dto.JenkinsSyncReport;
+import com.qa.automation.model.JenkinsResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps Jenkins results fresh in the background. Each job is polled at a cadence
+ * derived from its inferred frequency, with a per-job phase offset so jobs sharing
+ * a cadence don't all come due on the same tick.
+ */
+@Service
+public class JenkinsSyncScheduler {
+
+    @Autowired
+    private JenkinsService jenkinsService;
+
+    @Autowired
+    private JenkinsRequestGuard jenkinsRequestGuard;
+
+    @Value("${jenkins.url:}")
+    private String jenkinsUrl;
+
+    @Value("${jenkins.scheduler.enabled:true}")
+    private boolean enabled;
+
+    // Interval between full discovery crawls, which pick up new and removed jobs; ticks in
+    // between fetch only the jobs that are due
+    @Value("${jenkins.scheduler.discovery-interval-minutes:30}")
+    private long discoveryIntervalMinutes;
+
+    // Stretches every cadence; raise it when webhooks deliver builds and polling only reconciles
+    @Value("${jenkins.scheduler.cadence-multiplier:1.0}")
+    private double cadenceMultiplier;
+
+    // Next due time (epoch millis) per job
+    private final Map<String, Long> nextDueAt = new ConcurrentHashMap<>();
+    private volatile long lastDiscoveryAt;
+    private volatile JenkinsSyncReport lastReport;
+
+    @Scheduled(initialDelayString = "${jenkins.scheduler.initial-delay-ms:60000}",
+            fixedDelayString = "${jenkins.scheduler.tick-ms:60000}")
+    public void tick() {
+        if (!enabled || jenkinsUrl == null || jenkinsUrl.isBlank()) {
+            return;
+        }
+
+        // Don't add load while Jenkins is failing; due jobs are picked up once the circuit closes
+        if (jenkinsRequestGuard.isCircuitOpen(jenkinsUrl)) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        boolean discoveryDue = nextDueAt.isEmpty() ||
+                now - lastDiscoveryAt >= Duration.ofMinutes(discoveryIntervalMinutes).toMillis();
+
+        try {
+            if (discoveryDue) {
+                discoverAndSubmit(now);
+            } else {
+                submitDue(now);
+            }
+        } catch (Exception e) {
+            System.err.println("Scheduled Jenkins sync failed: " + e.getMessage());
+        }
+    }
+
+    // One tree crawl refreshes the job list and the build snapshot of every job
+    private void discoverAndSubmit(long now) {
+        List<JenkinsJobSnapshot> jobs = jenkinsService.discoverJobs();
+        lastDiscoveryAt = now;
+
+        Set<String> seen = new HashSet<>();
+        List<JenkinsJobSnapshot> due = new ArrayList<>();
+        for (JenkinsJobSnapshot job : jobs) {
+            String jobName = job.getJobName();
+            seen.add(jobName);
+            long cadence = cadenceFor(jobName).toMillis();
+
+            Long dueAt = nextDueAt.get(jobName);
+            if (dueAt == null) {
+                nextDueAt.put(jobName, now + phaseOffset(jobName, cadence));
+            } else if (dueAt <= now && !jenkinsService.isSyncInFlight(jobName)) {
+                nextDueAt.put(jobName, now + cadence);
+                due.add(job);
+            }
+        }
+        nextDueAt.keySet().retainAll(seen);
+
+        if (!due.isEmpty()) {
+            System.out.println("Scheduled Jenkins sync: " + due.size() + " of " + jobs.size() + " jobs due");
+            lastReport = jenkinsService.submitJobSyncs(due);
+        }
+    }
+
+    // Between discovery passes only the due jobs are fetched, one job request each
+    private void submitDue(long now) {
+        List<String> due = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : nextDueAt.entrySet()) {
+            String jobName = entry.getKey();
+            if (entry.getValue() <= now && !jenkinsService.isSyncInFlight(jobName)) {
+                nextDueAt.put(jobName, now + cadenceFor(jobName).toMillis());
+                due.add(jobName);
+            }
+        }
+
+        if (!due.isEmpty()) {
+            System.out.println("Scheduled Jenkins sync: " + due.size() + " of " + nextDueAt.size() + " jobs due");
+            lastReport = jenkinsService.submitJobSyncsByName(due);
+        }
+    }
+
+    public JenkinsSyncReport getLastReport() {
+        return lastReport;
+    }
+
+    private Duration cadenceFor(String jobName) {
+        return Duration.ofMillis((long) (baseCadence(jobName).toMillis() * Math.max(1.0, cadenceMultiplier)));
+    }
+
+    private Duration baseCadence(String jobName) {
+        switch (JenkinsResult.inferFrequency(jobName)) {
+            case "Continuous":
+                return Duration.ofMinutes(5);
+            case "Hourly":
+                return Duration.ofMinutes(15);
+            case "Daily":
+                return Duration.ofHours(1);
+            case "Weekly":
+                return Duration.ofHours(6);
+            case "Monthly":
+                return Duration.ofHours(12);
+            case "On Demand":
+                return Duration.ofHours(1);
+            default:
+                return Duration.ofMinutes(30);
+        }
+    }
+
+    // Stable per-job offset within the cadence, so the spread survives restarts
+    private long phaseOffset(String jobName, long cadenceMillis) {
+        return Math.floorMod((long) jobName.hashCode() * 2654435761L, cadenceMillis);
+    }
+}
@@ -0,0 +1,164 @@
+package com.qa.automation.service;
+
+import com.qa.automation.model.JenkinsResult;
+import com.qa.automation.model.JenkinsTestCase;
+import com.qa.automation.repository.JenkinsTestCaseRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Write path for test-case ingestion. A resync is applied as a delta against the
+ * rows already stored for the build, so its cost follows what changed rather than
+ * the size of the build.
+ */
+@Service
+public class JenkinsTestCaseWriter {
+
+    // Matches spring.jpa.properties.hibernate.jdbc.batch_size
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private JenkinsTestCaseRepository jenkinsTestCaseRepository;
+
+    @Autowired
+    private JenkinsTestIdentityService jenkinsTestIdentityService;
+
+    @Autowired
+    private JenkinsFailureDetailService jenkinsFailureDetailService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public static class UpsertSummary {
+        private final int inserted;
+        private final int updated;
+        private final int deleted;
+        private final int unchanged;
+
+        public UpsertSummary(int inserted, int updated, int deleted, int unchanged) {
+            this.inserted = inserted;
+            this.updated = updated;
+            this.deleted = deleted;
+            this.unchanged = unchanged;
+        }
+
+        public int getInserted() {
+            return inserted;
+        }
+
+        public int getUpdated() {
+            return updated;
+        }
+
+        public int getDeleted() {
+            return deleted;
+        }
+
+        public int getUnchanged() {
+            return unchanged;
+        }
+
+        @Override
+        public String toString() {
+            return "inserted=" + inserted + ", updated=" + updated +
+                    ", deleted=" + deleted + ", unchanged=" + unchanged;
+        }
+    }
+
+    /**
+     * Reconcile the stored test cases of a build with the freshly extracted ones,
+     * keyed by (className, testName). Rows that did not change are not touched,
+     * changed rows are updated in place, new ones are batch-inserted and rows that
+     * disappeared are removed with a single set-based delete.
+     */
+    @Transactional
+    public UpsertSummary upsert(JenkinsResult jenkinsResult, List<JenkinsTestCase> incoming) {
+        long start = System.nanoTime();
+
+        Map<String, JenkinsTestCase> existingByKey = new HashMap<>();
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (JenkinsTestCase existing : jenkinsTestCaseRepository.findByJenkinsResultIdOrderByIdAsc(jenkinsResult.getId())) {
+            existingByKey.put(keyOf(existing, occurrences), existing);
+        }
+
+        // Cheap for known tests (intern cache); the ingest indexes need ids on every row, not just inserts
+        jenkinsTestIdentityService.assignIdentities(incoming);
+        jenkinsFailureDetailService.assignFailureDetails(incoming);
+
+        List<JenkinsTestCase> inserts = new ArrayList<>();
+        int updated = 0;
+        int unchanged = 0;
+        occurrences.clear();
+
+        for (JenkinsTestCase testCase : incoming) {
+            JenkinsTestCase existing = existingByKey.remove(keyOf(testCase, occurrences));
+            if (existing == null) {
+                testCase.setJenkinsResult(jenkinsResult);
+                inserts.add(testCase);
+            } else if (copyChanges(testCase, existing)) {
+                // Managed entity: dirty checking turns this into a batched UPDATE at flush
+                updated++;
+            } else {
+                unchanged++;
+            }
+        }
+
+        List<Long> staleIds = new ArrayList<>(existingByKey.size());
+        for (JenkinsTestCase stale : existingByKey.values()) {
+            staleIds.add(stale.getId());
+        }
+        if (!staleIds.isEmpty()) {
+            jenkinsTestCaseRepository.deleteAllByIdInBatch(staleIds);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        for (int i = 0; i < inserts.size(); i++) {
+            entityManager.persist(inserts.get(i));
+            if ((i + 1) % BATCH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        UpsertSummary summary = new UpsertSummary(inserts.size(), updated, staleIds.size(), unchanged);
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        System.out.println("Upserted test cases for job: " + jenkinsResult.getJobName() + " build: " +
+                jenkinsResult.getBuildNumber() + " (" + summary + ") in " + elapsedMs + " ms");
+        return summary;
+    }
+
+    // Parameterised tests repeat (className, testName), so the occurrence index keeps keys unique
+    private String keyOf(JenkinsTestCase testCase, Map<String, Integer> occurrences) {
+        // A missing class name is stored as "" in the identity table
+        String key = Objects.toString(testCase.getClassName(), "") + '#' + testCase.getTestName();
+        int occurrence = occurrences.merge(key, 1, Integer::sum);
+        return key + '#' + occurrence;
+    }
+
+    private boolean copyChanges(JenkinsTestCase source, JenkinsTestCase target) {
+        boolean changed = false;
+        if (!Objects.equals(source.getStatus(), target.getStatus())) {
+            target.setStatus(source.getStatus());
+            changed = true;
+        }
+        if (!Objects.equals(source.getDuration(), target.getDuration())) {
+            target.setDuration(source.getDuration());
+            changed = true;
+        }
+        // Equal failure text maps to the same content-addressed detail id
+        if (!Objects.equals(source.getFailureDetailId(), target.getFailureDetailId())) {
+            target.setFailureDetailId(source.getFailureDetailId());
+            changed = true;
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,738 @@
+package com.qa.automation.service;
+
+import com.qa.automation.config.JenkinsSchemaInitializer;
+import com.qa.automation.model.JenkinsResult;
+import com.qa.automation.model.JenkinsTestCase;
+import com.qa.automation.model.JenkinsTestIdentity;
+import com.qa.automation.repository.JenkinsTestIdentityRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-memory outcome history of every test, per job. Each (job, test identity) holds
+ * three bit planes (passed, failed, skipped) over the job's retained builds, bit 0 being
+ * the newest build; a build the test did not run in has no bit set. History, flip rate
+ * and failing streaks are then a few word operations instead of a query per test.
+ *
+ * The index is rebuilt from jenkins_test_cases on startup, updated by every ingest and
+ * snapshotted to disk so it can answer from the snapshot while the rebuild runs.
+ */
+@Service
+public class JenkinsTestHistoryService {
+
+    private static final int PASSED = 0;
+    private static final int FAILED = 1;
+    private static final int SKIPPED = 2;
+    private static final int PLANES = 3;
+    private static final String[] PLANE_STATUS = {"PASSED", "FAILED", "SKIPPED"};
+
+    private static final int SNAPSHOT_MAGIC = 0x4A544831; // "JTH1"
+    private static final int REBUILD_CHUNK = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JenkinsTestIdentityRepository jenkinsTestIdentityRepository;
+
+    @Autowired
+    private JenkinsSchemaInitializer jenkinsSchemaInitializer;
+
+    @Value("${jenkins.test-history.max-builds:256}")
+    private int maxBuilds;
+
+    @Value("${jenkins.test-history.snapshot-path:data/jenkins-test-history.bin}")
+    private String snapshotPath;
+
+    private volatile Map<String, JobHistory> jobs = new ConcurrentHashMap<>();
+
+    // Ingest and the rebuild swap serialize on this, so no build lands between replay and swap
+    private final Object swapLock = new Object();
+    private boolean rebuilding;
+    private final List<PendingBuild> pendingBuilds = new ArrayList<>();
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile String source = "EMPTY";
+    private volatile LocalDateTime loadedAt;
+
+    private static final class BuildColumn {
+        final long resultId;
+        final String buildNumber;
+        final long timestamp;
+
+        BuildColumn(long resultId, String buildNumber, long timestamp) {
+            this.resultId = resultId;
+            this.buildNumber = buildNumber;
+            this.timestamp = timestamp;
+        }
+
+        boolean isNewerThan(BuildColumn other) {
+            return timestamp != other.timestamp ? timestamp > other.timestamp : resultId > other.resultId;
+        }
+    }
+
+    private static final class JobHistory {
+        // Newest first; column i is bit i of every plane
+        final List<BuildColumn> builds = new ArrayList<>();
+        // Test identity -> [passed words][failed words][skipped words]
+        final Map<Long, long[]> tests = new HashMap<>();
+
+        int indexOf(long resultId) {
+            for (int i = 0; i < builds.size(); i++) {
+                if (builds.get(i).resultId == resultId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        int insertionPoint(BuildColumn build) {
+            int position = 0;
+            while (position < builds.size() && !build.isNewerThan(builds.get(position))) {
+                position++;
+            }
+            return position;
+        }
+    }
+
+    /**
+     * Status of a test in an ingested build next to its status in the previous build
+     * that ran it. previousStatus is null when the test never ran before in the window.
+     */
+    public static final class Transition {
+        private final long testIdentityId;
+        private final String status;
+        private final String previousStatus;
+        private final String previousBuildNumber;
+        private final int failingStreak;
+
+        Transition(long testIdentityId, String status, String previousStatus, String previousBuildNumber, int failingStreak) {
+            this.testIdentityId = testIdentityId;
+            this.status = status;
+            this.previousStatus = previousStatus;
+            this.previousBuildNumber = previousBuildNumber;
+            this.failingStreak = failingStreak;
+        }
+
+        public long getTestIdentityId() {
+            return testIdentityId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getPreviousStatus() {
+            return previousStatus;
+        }
+
+        public String getPreviousBuildNumber() {
+            return previousBuildNumber;
+        }
+
+        public int getFailingStreak() {
+            return failingStreak;
+        }
+    }
+
+    private static final class PendingBuild {
+        final String jobName;
+        final BuildColumn build;
+        final Map<Long, Integer> outcomes;
+
+        PendingBuild(String jobName, BuildColumn build, Map<Long, Integer> outcomes) {
+            this.jobName = jobName;
+            this.build = build;
+            this.outcomes = outcomes;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRebuild() {
+        Thread thread = new Thread(() -> {
+            loadSnapshot();
+            // The snapshot serves reads meanwhile; rows still lacking an identity would drop out of the rebuild
+            try {
+                jenkinsSchemaInitializer.awaitTestIdentityBackfill();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            rebuild();
+        }, "jenkins-test-history");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void saveOnShutdown() {
+        scheduledSnapshot();
+    }
+
+    /**
+     * Fold one ingested build into the index. Re-ingesting a build replaces its column.
+     * Returns the pass/fail transitions of the build's tests against the previous builds
+     * already in the index, or nothing for the first build the index sees of a job.
+     */
+    public List<Transition> recordBuild(JenkinsResult jenkinsResult, List<JenkinsTestCase> testCases) {
+        Map<Long, Integer> outcomes = new HashMap<>();
+        for (JenkinsTestCase testCase : testCases) {
+            Integer plane = planeOf(testCase.getStatus());
+            if (testCase.getTestIdentityId() != null && plane != null) {
+                outcomes.merge(testCase.getTestIdentityId(), plane, JenkinsTestHistoryService::worse);
+            }
+        }
+        if (outcomes.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Transition> transitions = new ArrayList<>();
+        BuildColumn build = new BuildColumn(jenkinsResult.getId(), jenkinsResult.getBuildNumber(),
+                epochMillis(jenkinsResult.getBuildTimestamp()));
+        synchronized (swapLock) {
+            applyBuild(jobs, jenkinsResult.getJobName(), build, outcomes, transitions);
+            if (rebuilding) {
+                pendingBuilds.add(new PendingBuild(jenkinsResult.getJobName(), build, outcomes));
+            }
+        }
+        dirty.set(true);
+        return transitions;
+    }
+
+    /**
+     * Outcomes of one test in the job's retained builds, newest first, with its flip
+     * rate and current failing streak. Empty when the job has no history for the test.
+     */
+    public Optional<Map<String, Object>> getHistory(String jobName, long testIdentityId, int limit) {
+        JobHistory job = jobs.get(jobName);
+        if (job == null) {
+            return Optional.empty();
+        }
+        synchronized (job) {
+            long[] bits = job.tests.get(testIdentityId);
+            if (bits == null) {
+                return Optional.empty();
+            }
+            int words = words();
+            List<Map<String, Object>> runs = new ArrayList<>();
+            for (int column = 0; column < Math.min(Math.max(1, limit), job.builds.size()); column++) {
+                BuildColumn build = job.builds.get(column);
+                Map<String, Object> run = new LinkedHashMap<>();
+                run.put("buildNumber", build.buildNumber);
+                run.put("status", statusAt(bits, words, column));
+                runs.add(run);
+            }
+            Map<String, Object> result = summarize(job, bits, job.builds.size());
+            result.put("jobName", jobName);
+            result.put("testIdentityId", testIdentityId);
+            result.put("history", runs);
+            return Optional.of(result);
+        }
+    }
+
+    /**
+     * Tests of a job ordered by flip rate over the newest window builds. Only tests with
+     * at least minRuns executions that both passed and failed are considered.
+     */
+    public List<Map<String, Object>> getFlakyTests(String jobName, int window, int minRuns, int limit) {
+        JobHistory job = jobs.get(jobName);
+        if (job == null) {
+            return new ArrayList<>();
+        }
+        List<Map<String, Object>> candidates = new ArrayList<>();
+        synchronized (job) {
+            int columns = Math.min(window > 0 ? window : Integer.MAX_VALUE, job.builds.size());
+            int words = words();
+            for (Map.Entry<Long, long[]> entry : job.tests.entrySet()) {
+                long[] bits = entry.getValue();
+                int passes = countBits(bits, PASSED * words, words, columns);
+                int failures = countBits(bits, FAILED * words, words, columns);
+                if (passes == 0 || failures == 0 || passes + failures < minRuns) {
+                    continue;
+                }
+                Map<String, Object> summary = summarize(job, bits, columns);
+                summary.put("testIdentityId", entry.getKey());
+                candidates.add(summary);
+            }
+        }
+        candidates.sort(Comparator.comparingDouble((Map<String, Object> summary) -> (Double) summary.get("flipRate")).reversed());
+        return withNames(candidates.subList(0, Math.min(Math.max(1, limit), candidates.size())));
+    }
+
+    /**
+     * Tests that failed in the newest build of a job, longest failing first.
+     */
+    public List<Map<String, Object>> getFailingTests(String jobName, int limit) {
+        JobHistory job = jobs.get(jobName);
+        if (job == null) {
+            return new ArrayList<>();
+        }
+        List<Map<String, Object>> failing = new ArrayList<>();
+        synchronized (job) {
+            int words = words();
+            for (Map.Entry<Long, long[]> entry : job.tests.entrySet()) {
+                if ((entry.getValue()[FAILED * words] & 1L) == 0) {
+                    continue;
+                }
+                Map<String, Object> summary = summarize(job, entry.getValue(), job.builds.size());
+                summary.put("testIdentityId", entry.getKey());
+                failing.add(summary);
+            }
+        }
+        failing.sort(Comparator.comparingInt((Map<String, Object> summary) -> (Integer) summary.get("failingStreak")).reversed());
+        return withNames(failing.subList(0, Math.min(Math.max(1, limit), failing.size())));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        Map<String, JobHistory> current = jobs;
+        long tests = 0;
+        long builds = 0;
+        for (JobHistory job : current.values()) {
+            synchronized (job) {
+                tests += job.tests.size();
+                builds += job.builds.size();
+            }
+        }
+        stats.put("jobs", current.size());
+        stats.put("tests", tests);
+        stats.put("builds", builds);
+        stats.put("maxBuildsPerJob", words() * 64);
+        stats.put("bitPlaneBytes", tests * PLANES * words() * Long.BYTES);
+        stats.put("source", source);
+        stats.put("loadedAt", loadedAt);
+        synchronized (swapLock) {
+            stats.put("rebuildInProgress", rebuilding);
+        }
+        return stats;
+    }
+
+    @Scheduled(initialDelayString = "${jenkins.test-history.snapshot-interval-ms:600000}",
+            fixedDelayString = "${jenkins.test-history.snapshot-interval-ms:600000}")
+    public void scheduledSnapshot() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            writeSnapshot();
+        } catch (Exception e) {
+            dirty.set(true);
+            System.err.println("Failed to write test history snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the index from the newest retained builds of every job. The current index
+     * keeps serving, and receiving ingests, until the rebuilt one replaces it.
+     */
+    public void rebuild() {
+        synchronized (swapLock) {
+            if (rebuilding) {
+                return;
+            }
+            rebuilding = true;
+            pendingBuilds.clear();
+        }
+        Map<String, JobHistory> rebuilt = null;
+        try {
+            rebuilt = loadFromDatabase();
+        } catch (Exception e) {
+            System.err.println("Failed to rebuild test history from the database: " + e.getMessage());
+        } finally {
+            synchronized (swapLock) {
+                if (rebuilt != null) {
+                    for (PendingBuild pending : pendingBuilds) {
+                        applyBuild(rebuilt, pending.jobName, pending.build, pending.outcomes, null);
+                    }
+                    jobs = rebuilt;
+                    source = "DATABASE";
+                    loadedAt = LocalDateTime.now();
+                    dirty.set(true);
+                }
+                pendingBuilds.clear();
+                rebuilding = false;
+            }
+        }
+        if (rebuilt != null) {
+            System.out.println("Rebuilt test history for " + rebuilt.size() + " jobs");
+            scheduledSnapshot();
+        }
+    }
+
+    private Map<String, JobHistory> loadFromDatabase() {
+        int capacity = words() * 64;
+        Map<String, List<Object[]>> buildsByJob = new LinkedHashMap<>();
+        // Only builds with stored test cases get a column
+        jdbcTemplate.query("SELECT jr.id, jr.job_name, jr.build_number, jr.build_timestamp FROM jenkins_results jr " +
+                "WHERE EXISTS (SELECT 1 FROM jenkins_test_cases tc WHERE tc.jenkins_result_id = jr.id) " +
+                "ORDER BY jr.job_name, jr.build_timestamp DESC, jr.id DESC", row -> {
+            List<Object[]> builds = buildsByJob.computeIfAbsent(row.getString(2), name -> new ArrayList<>());
+            if (builds.size() < capacity) {
+                builds.add(new Object[]{row.getLong(1), row.getString(3), row.getTimestamp(4)});
+            }
+        });
+
+        Map<String, JobHistory> rebuilt = new ConcurrentHashMap<>();
+        for (Map.Entry<String, List<Object[]>> job : buildsByJob.entrySet()) {
+            List<Object[]> builds = job.getValue();
+            for (int from = 0; from < builds.size(); from += REBUILD_CHUNK) {
+                List<Object[]> chunk = builds.subList(from, Math.min(from + REBUILD_CHUNK, builds.size()));
+                Map<Long, Map<Long, Integer>> outcomesByResult = new HashMap<>();
+                jdbcTemplate.query("SELECT jenkins_result_id, test_identity_id, status FROM jenkins_test_cases " +
+                        "WHERE test_identity_id IS NOT NULL AND jenkins_result_id IN (" +
+                        String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")", row -> {
+                    Integer plane = planeOf(row.getString(3));
+                    if (plane != null) {
+                        outcomesByResult.computeIfAbsent(row.getLong(1), id -> new HashMap<>())
+                                .merge(row.getLong(2), plane, JenkinsTestHistoryService::worse);
+                    }
+                }, chunk.stream().map(build -> build[0]).toArray());
+
+                // Newest first, so every column is appended and nothing shifts
+                for (Object[] build : chunk) {
+                    Map<Long, Integer> outcomes = outcomesByResult.get((Long) build[0]);
+                    if (outcomes != null) {
+                        Timestamp timestamp = (Timestamp) build[2];
+                        applyBuild(rebuilt, job.getKey(), new BuildColumn((Long) build[0], (String) build[1],
+                                timestamp != null ? timestamp.getTime() : 0), outcomes, null);
+                    }
+                }
+            }
+        }
+        return rebuilt;
+    }
+
+    // transitions, when given, receives each test's change against the older builds
+    private void applyBuild(Map<String, JobHistory> target, String jobName, BuildColumn build, Map<Long, Integer> outcomes,
+                            List<Transition> transitions) {
+        JobHistory job = target.computeIfAbsent(jobName, name -> new JobHistory());
+        int words = words();
+        int capacity = words * 64;
+        synchronized (job) {
+            int column = job.indexOf(build.resultId);
+            if (column >= 0) {
+                job.builds.set(column, build);
+                Iterator<long[]> tests = job.tests.values().iterator();
+                while (tests.hasNext()) {
+                    long[] bits = tests.next();
+                    for (int plane = 0; plane < PLANES; plane++) {
+                        bits[plane * words + (column >>> 6)] &= ~(1L << column);
+                    }
+                    if (isEmpty(bits)) {
+                        tests.remove();
+                    }
+                }
+            } else {
+                column = job.insertionPoint(build);
+                if (column >= capacity) {
+                    return;
+                }
+                job.builds.add(column, build);
+                boolean droppedOldest = job.builds.size() > capacity;
+                if (droppedOldest) {
+                    job.builds.remove(capacity);
+                }
+                if (column < job.builds.size() - 1) {
+                    Iterator<long[]> tests = job.tests.values().iterator();
+                    while (tests.hasNext()) {
+                        long[] bits = tests.next();
+                        for (int plane = 0; plane < PLANES; plane++) {
+                            insertZeroBit(bits, plane * words, words, column);
+                        }
+                        if (droppedOldest && isEmpty(bits)) {
+                            tests.remove();
+                        }
+                    }
+                }
+            }
+            boolean hasOlderBuilds = column < job.builds.size() - 1;
+            for (Map.Entry<Long, Integer> outcome : outcomes.entrySet()) {
+                long[] bits = job.tests.computeIfAbsent(outcome.getKey(), id -> new long[PLANES * words]);
+                if (transitions != null && hasOlderBuilds && outcome.getValue() != SKIPPED) {
+                    transitions.add(transitionAt(job, outcome.getKey(), bits, column, outcome.getValue()));
+                }
+                bits[outcome.getValue() * words + (column >>> 6)] |= 1L << column;
+            }
+        }
+    }
+
+    // Compares against the nearest older column in which the test passed or failed
+    private Transition transitionAt(JobHistory job, long testIdentityId, long[] bits, int column, int plane) {
+        int words = words();
+        int previous = -1;
+        for (int w = column >>> 6; w < words && previous < 0; w++) {
+            long executed = bits[PASSED * words + w] | bits[FAILED * words + w];
+            if (w == column >>> 6) {
+                executed &= -2L << (column & 63);
+            }
+            if (executed != 0) {
+                previous = w * 64 + Long.numberOfTrailingZeros(executed);
+            }
+        }
+        if (previous < 0) {
+            return new Transition(testIdentityId, PLANE_STATUS[plane], null, null, plane == FAILED ? 1 : 0);
+        }
+
+        int streak = plane == FAILED ? 1 + failingRun(bits, column + 1, job.builds.size())[0] : 0;
+        boolean previouslyFailed = (bits[FAILED * words + (previous >>> 6)] & (1L << previous)) != 0;
+        return new Transition(testIdentityId, PLANE_STATUS[plane], previouslyFailed ? "FAILED" : "PASSED",
+                job.builds.get(previous).buildNumber, streak);
+    }
+
+    /**
+     * Counts, flip rate and failing streak over the newest columns builds. A flip is a
+     * pass/fail change between two adjacent builds that both ran the test; the streak
+     * counts failed runs since the last pass.
+     */
+    private Map<String, Object> summarize(JobHistory job, long[] bits, int columns) {
+        int words = words();
+        int flips = 0;
+        int pairs = 0;
+        for (int w = 0; w < words; w++) {
+            long executed = (bits[PASSED * words + w] | bits[FAILED * words + w]) & columnMask(w, columns);
+            long nextExecuted = w + 1 < words ?
+                    (bits[PASSED * words + w + 1] | bits[FAILED * words + w + 1]) & columnMask(w + 1, columns) : 0;
+            long failed = bits[FAILED * words + w];
+            long nextFailed = w + 1 < words ? bits[FAILED * words + w + 1] : 0;
+
+            long adjacent = executed & ((executed >>> 1) | (nextExecuted << 63));
+            long changed = failed ^ ((failed >>> 1) | (nextFailed << 63));
+            pairs += Long.bitCount(adjacent);
+            flips += Long.bitCount(adjacent & changed);
+        }
+
+        int[] failingRun = failingRun(bits, 0, job.builds.size());
+
+        int passes = countBits(bits, PASSED * words, words, columns);
+        int failures = countBits(bits, FAILED * words, words, columns);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("runs", passes + failures);
+        summary.put("passed", passes);
+        summary.put("failed", failures);
+        summary.put("skipped", countBits(bits, SKIPPED * words, words, columns));
+        summary.put("flips", flips);
+        summary.put("flipRate", pairs > 0 ? (double) flips / pairs : 0.0);
+        summary.put("failingStreak", failingRun[0]);
+        summary.put("failingSinceBuild", failingRun[1] >= 0 ? job.builds.get(failingRun[1]).buildNumber : null);
+        return summary;
+    }
+
+    private List<Map<String, Object>> withNames(List<Map<String, Object>> summaries) {
+        List<Long> ids = summaries.stream().map(summary -> (Long) summary.get("testIdentityId")).collect(Collectors.toList());
+        Map<Long, JenkinsTestIdentity> identities = jenkinsTestIdentityRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(JenkinsTestIdentity::getId, Function.identity()));
+        List<Map<String, Object>> result = new ArrayList<>(summaries.size());
+        for (Map<String, Object> summary : summaries) {
+            JenkinsTestIdentity identity = identities.get((Long) summary.get("testIdentityId"));
+            Map<String, Object> named = new LinkedHashMap<>();
+            named.put("testIdentityId", summary.get("testIdentityId"));
+            named.put("className", identity != null ? identity.getClassName() : null);
+            named.put("testName", identity != null ? identity.getTestName() : null);
+            named.putAll(summary);
+            result.add(named);
+        }
+        return result;
+    }
+
+    private void writeSnapshot() throws IOException {
+        Path target = Paths.get(snapshotPath);
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Map<String, JobHistory> current = jobs;
+        int words = words();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp))))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(words);
+            List<String> jobNames = new ArrayList<>(current.keySet());
+            out.writeInt(jobNames.size());
+            for (String jobName : jobNames) {
+                JobHistory job = current.get(jobName);
+                synchronized (job) {
+                    out.writeUTF(jobName);
+                    out.writeInt(job.builds.size());
+                    for (BuildColumn build : job.builds) {
+                        out.writeLong(build.resultId);
+                        out.writeUTF(build.buildNumber != null ? build.buildNumber : "");
+                        out.writeLong(build.timestamp);
+                    }
+                    out.writeInt(job.tests.size());
+                    for (Map.Entry<Long, long[]> test : job.tests.entrySet()) {
+                        out.writeLong(test.getKey());
+                        for (long word : test.getValue()) {
+                            out.writeLong(word);
+                        }
+                    }
+                }
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    void loadSnapshot() {
+        Path path = Paths.get(snapshotPath);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(path))))) {
+            int words = words();
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != words) {
+                System.out.println("Ignoring test history snapshot written with a different format or build window");
+                return;
+            }
+            Map<String, JobHistory> loaded = new ConcurrentHashMap<>();
+            int jobCount = in.readInt();
+            for (int j = 0; j < jobCount; j++) {
+                JobHistory job = new JobHistory();
+                loaded.put(in.readUTF(), job);
+                int buildCount = in.readInt();
+                for (int b = 0; b < buildCount; b++) {
+                    job.builds.add(new BuildColumn(in.readLong(), in.readUTF(), in.readLong()));
+                }
+                int testCount = in.readInt();
+                for (int t = 0; t < testCount; t++) {
+                    long id = in.readLong();
+                    long[] bits = new long[PLANES * words];
+                    for (int w = 0; w < bits.length; w++) {
+                        bits[w] = in.readLong();
+                    }
+                    job.tests.put(id, bits);
+                }
+            }
+            synchronized (swapLock) {
+                // An ingest that already reached the empty index is kept in it; the rebuild covers both
+                if (jobs.isEmpty()) {
+                    jobs = loaded;
+                    source = "SNAPSHOT";
+                    loadedAt = LocalDateTime.now();
+                }
+            }
+            System.out.println("Loaded test history snapshot for " + loaded.size() + " jobs");
+        } catch (Exception e) {
+            System.err.println("Failed to load test history snapshot: " + e.getMessage());
+        }
+    }
+
+    // Failed runs from column from on, up to the next passed run: {count, oldest failed column or -1}
+    int[] failingRun(long[] bits, int from, int columns) {
+        int words = words();
+        int count = 0;
+        int oldest = -1;
+        for (int w = from >>> 6; w < words; w++) {
+            long window = columnMask(w, columns) & (w == from >>> 6 ? -1L << (from & 63) : -1L);
+            long passed = bits[PASSED * words + w] & window;
+            if (passed != 0) {
+                window &= Long.lowestOneBit(passed) - 1;
+            }
+            long failed = bits[FAILED * words + w] & window;
+            count += Long.bitCount(failed);
+            if (failed != 0) {
+                oldest = w * 64 + 63 - Long.numberOfLeadingZeros(failed);
+            }
+            if (passed != 0) {
+                break;
+            }
+        }
+        return new int[]{count, oldest};
+    }
+
+    private String statusAt(long[] bits, int words, int column) {
+        long mask = 1L << column;
+        for (int plane = 0; plane < PLANES; plane++) {
+            if ((bits[plane * words + (column >>> 6)] & mask) != 0) {
+                return PLANE_STATUS[plane];
+            }
+        }
+        return "NOT_RUN";
+    }
+
+    // Shift bits [position, end) of one plane up by one, leaving position clear; the top bit falls off
+    static void insertZeroBit(long[] bits, int offset, int words, int position) {
+        int first = position >>> 6;
+        for (int w = words - 1; w > first; w--) {
+            bits[offset + w] = (bits[offset + w] << 1) | (bits[offset + w - 1] >>> 63);
+        }
+        long word = bits[offset + first];
+        long below = (1L << (position & 63)) - 1;
+        bits[offset + first] = (word & below) | ((word & ~below) << 1);
+    }
+
+    private static int countBits(long[] bits, int offset, int words, int columns) {
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(bits[offset + w] & columnMask(w, columns));
+        }
+        return count;
+    }
+
+    // Bits of word w that fall within the first columns columns
+    private static long columnMask(int w, int columns) {
+        int remaining = columns - w * 64;
+        return remaining >= 64 ? -1L : remaining <= 0 ? 0L : (1L << remaining) - 1;
+    }
+
+    private static boolean isEmpty(long[] bits) {
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // A data-provider test counts as failed if any invocation failed, and as passed over skipped
+    private static int worse(int a, int b) {
+        if (a == FAILED || b == FAILED) {
+            return FAILED;
+        }
+        return a == PASSED || b == PASSED ? PASSED : SKIPPED;
+    }
+
+    private static Integer planeOf(String status) {
+        if (status == null) {
+            return null;
+        }
+        switch (status) {
+            case "PASSED":
+                return PASSED;
+            case "FAILED":
+                return FAILED;
+            case "SKIPPED":
+                return SKIPPED;
+            default:
+                return null;
+        }
+    }
+
+    private static long epochMillis(LocalDateTime timestamp) {
+        return timestamp != null ? timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+    }
+
+    // Build window rounded up to whole words
+    private int words() {
+        return Math.max(1, (maxBuilds + 63) / 64);
+    }
+}
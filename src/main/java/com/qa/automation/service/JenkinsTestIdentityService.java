@@ -0,0 +1,245 @@
+package com.qa.automation.service;
+
+import com.qa.automation.model.JenkinsTestCase;
+import com.qa.automation.model.JenkinsTestIdentity;
+import com.qa.automation.repository.JenkinsTestIdentityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Interns (className, testName) pairs into jenkins_test_identities. Known pairs are
+ * served from an in-memory LRU cache, so a resync of a build whose tests were seen
+ * before costs no identity queries at all; unknown pairs are resolved in bulk, one
+ * lookup per probe round for the whole build.
+ */
+@Service
+public class JenkinsTestIdentityService {
+
+    // A round only repeats for a hash collision or a concurrent insert, so hitting this means
+    // the database stores something other than the names that were inserted
+    static final int MAX_PROBE_ROUNDS = 16;
+
+    // Hex digits of the full-name digest that replace the tail of a name too long for its column
+    private static final int DIGEST_CHARS = 16;
+
+    private static final String INSERT_IDENTITY =
+            "INSERT INTO jenkins_test_identities (id, class_name, test_name, created_at) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private JenkinsTestIdentityRepository jenkinsTestIdentityRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate newRowsTransaction;
+
+    @Value("${jenkins.test-identity.cache-size:200000}")
+    private int cacheSize;
+
+    private final Map<String, JenkinsTestIdentity> cache = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JenkinsTestIdentity> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    // New rows commit on their own, so a rolled-back ingest never leaves the cache pointing at missing rows
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        newRowsTransaction = new TransactionTemplate(transactionManager);
+        newRowsTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Resolve the identity of every test case, creating missing identities.
+     */
+    public void assignIdentities(Collection<JenkinsTestCase> testCases) {
+        Map<String, JenkinsTestIdentity> resolved = new HashMap<>();
+        Map<String, String[]> missing = new LinkedHashMap<>();
+
+        synchronized (cache) {
+            for (JenkinsTestCase testCase : testCases) {
+                String className = normalizeClassName(testCase.getClassName());
+                String testName = normalizeTestName(testCase.getTestName());
+                String key = keyOf(className, testName);
+                JenkinsTestIdentity identity = cache.get(key);
+                if (identity != null) {
+                    resolved.put(key, identity);
+                } else {
+                    missing.put(key, new String[]{className, testName});
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<String, JenkinsTestIdentity> created = newRowsTransaction.execute(status -> lookupOrCreate(missing));
+            synchronized (cache) {
+                cache.putAll(created);
+            }
+            resolved.putAll(created);
+        }
+
+        for (JenkinsTestCase testCase : testCases) {
+            testCase.setTestIdentity(resolved.get(keyOf(normalizeClassName(testCase.getClassName()),
+                    normalizeTestName(testCase.getTestName()))));
+        }
+    }
+
+    /**
+     * Id of an existing test, without creating it.
+     */
+    public Optional<Long> findIdentityId(String className, String testName) {
+        String normalizedClass = normalizeClassName(className);
+        String normalizedTest = normalizeTestName(testName);
+        synchronized (cache) {
+            JenkinsTestIdentity cached = cache.get(keyOf(normalizedClass, normalizedTest));
+            if (cached != null) {
+                return Optional.of(cached.getId());
+            }
+        }
+        long id = JenkinsTestIdentity.hashOf(normalizedClass, normalizedTest);
+        for (int round = 0; round < MAX_PROBE_ROUNDS; round++) {
+            Optional<JenkinsTestIdentity> stored = jenkinsTestIdentityRepository.findById(id);
+            if (stored.isEmpty()) {
+                return Optional.empty();
+            }
+            if (stored.get().matches(normalizedClass, normalizedTest)) {
+                return Optional.of(id);
+            }
+            id++;
+        }
+        throw new IllegalStateException("No free id within " + MAX_PROBE_ROUNDS + " probes for test " +
+                normalizedClass + "." + normalizedTest);
+    }
+
+    public int getCachedCount() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Open addressing over the 64-bit id space: start at the hash, and on finding a
+     * different test at that id move to the next one. Ids claimed in one round are
+     * re-read in the next, so a concurrent insert of another test is detected too.
+     * Names are inserted exactly as they will be stored, so a round never repeats for
+     * a row the database altered; if one does, the rounds run out and ingest fails.
+     */
+    private Map<String, JenkinsTestIdentity> lookupOrCreate(Map<String, String[]> missing) {
+        Map<String, JenkinsTestIdentity> result = new HashMap<>();
+        Map<String, Long> candidates = new LinkedHashMap<>();
+        for (Map.Entry<String, String[]> entry : missing.entrySet()) {
+            String[] names = entry.getValue();
+            candidates.put(entry.getKey(), JenkinsTestIdentity.hashOf(names[0], names[1]));
+        }
+
+        for (int round = 0; !candidates.isEmpty(); round++) {
+            if (round == MAX_PROBE_ROUNDS) {
+                String[] names = missing.get(candidates.keySet().iterator().next());
+                throw new IllegalStateException("Could not intern " + candidates.size() + " test identities within " +
+                        MAX_PROBE_ROUNDS + " probe rounds, e.g. " + names[0] + "." + names[1]);
+            }
+            Map<Long, String> keysById = new HashMap<>();
+            for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+                long id = candidate.getValue();
+                while (keysById.containsKey(id)) {
+                    id++;
+                }
+                candidate.setValue(id);
+                keysById.put(id, candidate.getKey());
+            }
+
+            Map<Long, JenkinsTestIdentity> stored = new HashMap<>();
+            for (JenkinsTestIdentity identity : jenkinsTestIdentityRepository.findAllById(keysById.keySet())) {
+                stored.put(identity.getId(), identity);
+            }
+
+            List<Object[]> inserts = new ArrayList<>();
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (Map.Entry<Long, String> entry : keysById.entrySet()) {
+                String key = entry.getValue();
+                String[] names = missing.get(key);
+                JenkinsTestIdentity identity = stored.get(entry.getKey());
+                if (identity == null) {
+                    inserts.add(new Object[]{entry.getKey(), names[0], names[1], now});
+                } else if (identity.matches(names[0], names[1])) {
+                    result.put(key, identity);
+                    candidates.remove(key);
+                } else {
+                    candidates.put(key, entry.getKey() + 1);
+                }
+            }
+
+            if (!inserts.isEmpty()) {
+                insertIdentities(inserts);
+            }
+        }
+        return result;
+    }
+
+    // Plain INSERT, so truncation and charset errors fail the ingest instead of storing altered names
+    private void insertIdentities(List<Object[]> inserts) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_IDENTITY, inserts);
+        } catch (DuplicateKeyException e) {
+            // A concurrent ingest claimed one of the ids; the next round re-reads every id of this one
+            for (Object[] insert : inserts) {
+                try {
+                    jdbcTemplate.update(INSERT_IDENTITY, insert);
+                } catch (DuplicateKeyException claimed) {
+                    // Stored already, by this batch before it failed or by the other ingest
+                }
+            }
+        }
+    }
+
+    // Parsers may not know the class; an empty name keeps the identity columns non-null
+    private String normalizeClassName(String name) {
+        return fit(name != null ? name : "", JenkinsTestIdentity.MAX_CLASS_NAME_LENGTH);
+    }
+
+    private String normalizeTestName(String name) {
+        return fit(name != null ? name : "", JenkinsTestIdentity.MAX_TEST_NAME_LENGTH);
+    }
+
+    /**
+     * Shorten a name to its column size. The tail is replaced by a digest of the full
+     * name, so long data-provider names sharing a prefix stay distinct tests.
+     */
+    static String fit(String name, int maxLength) {
+        if (name.length() <= maxLength) {
+            return name;
+        }
+        int keep = maxLength - DIGEST_CHARS - 1;
+        // Never split a surrogate pair; the column counts it as one character, Java as two
+        if (Character.isHighSurrogate(name.charAt(keep - 1))) {
+            keep--;
+        }
+        return name.substring(0, keep) + '#' + sha256(name).substring(0, DIGEST_CHARS);
+    }
+
+    private static String sha256(String text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private String keyOf(String className, String testName) {
+        return className + '\u0000' + testName;
+    }
+}
@@ -1,27 +1,23 @@
 package com.qa.automation.service;
 
+import com.qa.automation.dto.JenkinsSyncReport;
 import com.qa.automation.model.JenkinsResult;
 import com.qa.automation.model.JenkinsTestCase;
 import com.qa.automation.repository.JenkinsResultRepository;
 import com.qa.automation.repository.JenkinsTestCaseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class JenkinsTestNGService {
@@ -35,173 +31,142 @@ public class JenkinsTestNGService {
     @Autowired
     private TestNGXMLParserService testNGXMLParserService;
 
-    @Value("${jenkins.url:}")
-    private String jenkinsUrl;
+    @Autowired
+    private ConsoleLogParserService consoleLogParserService;
 
-    @Value("${jenkins.username:}")
-    private String jenkinsUsername;
+    @Autowired
+    private JenkinsApiClient jenkinsApiClient;
 
-    @Value("${jenkins.token:}")
-    private String jenkinsToken;
+    @Autowired
+    private JenkinsService jenkinsService;
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Value("${jenkins.url:}")
+    private String jenkinsUrl;
+
+    private volatile ReportSnapshot reportSnapshot;
+    private final AtomicBoolean refreshInProgress = new AtomicBoolean();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "testng-report-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /**
-     * Generates a comprehensive report similar to your JenkinsTestNGResultReport class
+     * Returns the TestNG report from the latest snapshot. The snapshot is built from the
+     * stored latest build of every job, which the sync scheduler and webhook keep current,
+     * so serving it never calls Jenkins.
      */
     public Map<String, Object> generateTestNGReport() {
-        Map<String, Object> report = new HashMap<>();
-        List<Map<String, Object>> jobReports = new ArrayList<>();
-
-        try {
-            JsonNode jobs = fetchJobs();
-            if (jobs == null) {
-                report.put("error", "Failed to fetch jobs from Jenkins");
-                return report;
-            }
-
-            for (JsonNode job : jobs) {
-                String jobName = job.get("name").asText();
-                Map<String, Object> jobReport = processJobReport(jobName);
-                if (jobReport != null) {
-                    jobReports.add(jobReport);
-                }
-            }
-
-            report.put("totalJobs", jobReports.size());
-            report.put("jobReports", jobReports);
-            report.put("generatedAt", LocalDateTime.now().toString());
-
-            int totalTests = 0;
-            int totalPassed = 0;
-            int totalFailed = 0;
-            int totalSkipped = 0;
-
-            for (Map<String, Object> jr : jobReports) {
-                totalTests += getIntValue(jr.get("totalTestCases"));
-                totalPassed += getIntValue(jr.get("passCount"));
-                totalFailed += getIntValue(jr.get("failCount"));
-                totalSkipped += getIntValue(jr.get("skipCount"));
-            }
-
-            report.put("summary", Map.of(
-                    "totalTests", totalTests,
-                    "totalPassed", totalPassed,
-                    "totalFailed", totalFailed,
-                    "totalSkipped", totalSkipped
-            ));
-
-        } catch (Exception e) {
-            report.put("error", "Failed to generate TestNG report: " + e.getMessage());
-            e.printStackTrace();
+        ReportSnapshot snapshot = reportSnapshot;
+        if (snapshot == null) {
+            snapshot = refreshReportSnapshot();
         }
 
+        Map<String, Object> report = new HashMap<>(snapshot.report);
+        report.put("generatedAt", snapshot.generatedAt.toString());
+        report.put("ageSeconds", Duration.between(snapshot.generatedAt, LocalDateTime.now()).getSeconds());
+        report.put("refreshInProgress", refreshInProgress.get());
         return report;
     }
 
-    private int getIntValue(Object value) {
-        if (value instanceof Integer) {
-            return (Integer) value;
-        } else if (value instanceof String && !"N/A".equals(value)) {
-            try {
-                return Integer.parseInt((String) value);
-            } catch (NumberFormatException e) {
-                return 0;
-            }
+    /**
+     * Sync every job from Jenkins in the background and rebuild the snapshot when the
+     * run finishes. Joins the sync run already in progress, if any.
+     */
+    public Map<String, Object> requestAsyncRefresh() {
+        Map<String, Object> refresh = new HashMap<>();
+        if (!refreshInProgress.compareAndSet(false, true)) {
+            refresh.put("started", false);
+            refresh.put("message", "A report refresh is already in progress");
+            return refresh;
+        }
+
+        try {
+            JenkinsSyncReport syncRun = jenkinsService.startSyncRun();
+            refreshExecutor.execute(() -> {
+                try {
+                    syncRun.awaitFinished(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                    refreshReportSnapshot();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    System.err.println("TestNG report refresh failed: " + e.getMessage());
+                } finally {
+                    refreshInProgress.set(false);
+                }
+            });
+            refresh.put("started", true);
+            refresh.put("syncRunId", syncRun.getRunId());
+        } catch (RuntimeException e) {
+            refreshInProgress.set(false);
+            throw e;
         }
-        return 0;
+        return refresh;
     }
 
-    private Map<String, Object> processJobReport(String jobName) {
+    @Scheduled(initialDelayString = "${jenkins.testng.report.refresh-ms:60000}",
+            fixedDelayString = "${jenkins.testng.report.refresh-ms:60000}")
+    public void scheduledSnapshotRefresh() {
         try {
-            JsonNode latestBuild = fetchLatestBuildDetails(jobName);
-            if (latestBuild == null) {
-                return Map.of(
-                        "jobName", jobName,
-                        "buildNumber", "No Build Found",
-                        "buildStatus", "UNKNOWN",
-                        "totalTestCases", "N/A",
-                        "passCount", "N/A",
-                        "failCount", "N/A",
-                        "skipCount", "N/A",
-                        "executionDate", "N/A");
-            }
+            refreshReportSnapshot();
+        } catch (Exception e) {
+            System.err.println("Failed to refresh TestNG report snapshot: " + e.getMessage());
+        }
+    }
 
-            int latestBuildNumber = latestBuild.get("number").asInt();
-            String executionDate = formatTimestamp(latestBuild.get("timestamp").asLong());
-            String buildStatus = latestBuild.has("result") && !latestBuild.get("result").isNull() ?
-                    latestBuild.get("result").asText() : "IN_PROGRESS";
+    /**
+     * Rebuild the report snapshot from the database.
+     */
+    public ReportSnapshot refreshReportSnapshot() {
+        List<Map<String, Object>> jobReports = new ArrayList<>();
+        int totalTests = 0;
+        int totalPassed = 0;
+        int totalFailed = 0;
+        int totalSkipped = 0;
 
-            JsonNode testResults = fetchTestNGResults(jobName, latestBuildNumber);
+        for (JenkinsResult result : jenkinsResultRepository.findLatestResultsForAllJobs()) {
             Map<String, Object> jobReport = new HashMap<>();
-            jobReport.put("jobName", jobName);
-            jobReport.put("buildNumber", latestBuildNumber);
-            jobReport.put("buildStatus", buildStatus);
-            jobReport.put("executionDate", executionDate);
-
-            if (testResults != null) {
-                int failCount = testResults.has("failCount") ? testResults.get("failCount").asInt() : 0;
-                int skipCount = testResults.has("skipCount") ? testResults.get("skipCount").asInt() : 0;
-                int totalCount = testResults.has("total") ? testResults.get("total").asInt() : 0;
-                int passCount = totalCount - failCount - skipCount;
-
-                jobReport.put("totalTestCases", totalCount);
-                jobReport.put("passCount", Math.max(0, passCount));
+            jobReport.put("jobName", result.getJobName());
+            jobReport.put("buildNumber", result.getBuildNumber());
+            jobReport.put("buildStatus", result.getBuildStatus() != null ? result.getBuildStatus() : "UNKNOWN");
+            jobReport.put("executionDate", result.getBuildTimestamp() != null ? result.getBuildTimestamp().toString() : "N/A");
+
+            if (result.getTotalTests() != null) {
+                int failCount = result.getFailedTests() != null ? result.getFailedTests() : 0;
+                int skipCount = result.getSkippedTests() != null ? result.getSkippedTests() : 0;
+                int passCount = Math.max(0, result.getTotalTests() - failCount - skipCount);
+
+                jobReport.put("totalTestCases", result.getTotalTests());
+                jobReport.put("passCount", passCount);
                 jobReport.put("failCount", failCount);
                 jobReport.put("skipCount", skipCount);
 
-                updateDatabaseRecord(jobName, latestBuildNumber, buildStatus,
-                        totalCount, passCount, failCount, skipCount, latestBuild);
+                totalTests += result.getTotalTests();
+                totalPassed += passCount;
+                totalFailed += failCount;
+                totalSkipped += skipCount;
             } else {
                 jobReport.put("totalTestCases", "N/A");
                 jobReport.put("passCount", "N/A");
                 jobReport.put("failCount", "N/A");
                 jobReport.put("skipCount", "N/A");
             }
-
-            return jobReport;
-        } catch (Exception e) {
-            System.err.println("Error processing job report for " + jobName + ": " + e.getMessage());
-            return null;
+            jobReports.add(jobReport);
         }
-    }
-
-    private void updateDatabaseRecord(String jobName, int buildNumber, String buildStatus,
-                                      int totalTests, int passCount, int failCount, int skipCount,
-                                      JsonNode buildInfo) {
-        try {
-            Optional<JenkinsResult> existingResult = jenkinsResultRepository
-                    .findByJobNameAndBuildNumber(jobName, String.valueOf(buildNumber));
-
-            JenkinsResult jenkinsResult = existingResult.orElse(new JenkinsResult());
-            jenkinsResult.setJobName(jobName);
-            jenkinsResult.setBuildNumber(String.valueOf(buildNumber));
-            jenkinsResult.setBuildStatus(buildStatus);
-            jenkinsResult.setTotalTests(totalTests);
-            jenkinsResult.setPassedTests(passCount);
-            jenkinsResult.setFailedTests(failCount);
-            jenkinsResult.setSkippedTests(skipCount);
-
-            if (buildInfo.has("url")) {
-                jenkinsResult.setBuildUrl(buildInfo.get("url").asText());
-            }
-
-            if (buildInfo.has("timestamp")) {
-                long timestamp = buildInfo.get("timestamp").asLong();
-                jenkinsResult.setBuildTimestamp(
-                        LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp),
-                                java.time.ZoneId.systemDefault()));
-            }
 
-            JenkinsResult savedResult = jenkinsResultRepository.save(jenkinsResult);
-            System.out.println("Updated database record for " + jobName + " build " + buildNumber +
-                    " - ID: " + savedResult.getId());
-
-        } catch (Exception e) {
-            System.err.println("Error updating database record for " + jobName + ": " + e.getMessage());
-            e.printStackTrace();
-        }
+        Map<String, Object> report = new HashMap<>();
+        report.put("totalJobs", jobReports.size());
+        report.put("jobReports", jobReports);
+        report.put("summary", Map.of(
+                "totalTests", totalTests,
+                "totalPassed", totalPassed,
+                "totalFailed", totalFailed,
+                "totalSkipped", totalSkipped
+        ));
+
+        ReportSnapshot snapshot = new ReportSnapshot(Collections.unmodifiableMap(report), LocalDateTime.now());
+        reportSnapshot = snapshot;
+        return snapshot;
     }
 
     /**
@@ -282,18 +247,10 @@ public class JenkinsTestNGService {
     }
 
     private JsonNode fetchJenkinsTestReport(String jobName, String buildNumber) {
-        String url = jenkinsUrl + "/job/" + jobName + "/" + buildNumber + "/testReport/api/json";
+        String url = JenkinsUrls.build(jenkinsUrl, jobName, buildNumber) + "/testReport/api/json";
 
         try {
-            HttpHeaders headers = createAuthHeaders();
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.GET, entity, String.class);
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                return objectMapper.readTree(response.getBody());
-            }
+            return jenkinsApiClient.getJson(url);
         } catch (Exception e) {
             System.err.println("Failed to fetch Jenkins test report: " + e.getMessage());
         }
@@ -346,77 +303,9 @@ public class JenkinsTestNGService {
     }
 
     private List<Map<String, Object>> parseTestCasesFromConsoleLogForAPI(String jobName, String buildNumber) {
-        List<Map<String, Object>> testCases = new ArrayList<>();
-
-        try {
-            String consoleUrl = jenkinsUrl + "/job/" + jobName + "/" + buildNumber + "/consoleText";
-
-            HttpHeaders headers = createAuthHeaders();
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(
-                    consoleUrl, HttpMethod.GET, entity, String.class);
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                String consoleLog = response.getBody();
-                String[] lines = consoleLog.split("\n");
-
-                for (String line : lines) {
-                    // Look for TestNG result patterns
-                    if (line.contains("testcases.") && (line.contains("PASSED") || line.contains("FAILED") || line.contains("SKIPPED"))) {
-                        Map<String, Object> testCase = parseTestCaseFromLogLineForAPI(line);
-                        if (testCase != null) {
-                            testCases.add(testCase);
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error parsing console log: " + e.getMessage());
-        }
-
-        return testCases;
-    }
-
-    private Map<String, Object> parseTestCaseFromLogLineForAPI(String line) {
-        try {
-            Map<String, Object> testCase = new HashMap<>();
-
-            // Determine status
-            String status = "UNKNOWN";
-            if (line.contains("PASSED")) {
-                status = "PASSED";
-            } else if (line.contains("FAILED")) {
-                status = "FAILED";
-            } else if (line.contains("SKIPPED")) {
-                status = "SKIPPED";
-            }
-            testCase.put("status", status);
-
-            // Extract class and method name from patterns like "testcases.AccountReceivableIT.methodName"
-            if (line.contains("testcases.")) {
-                int start = line.indexOf("testcases.");
-                String testInfo = line.substring(start);
-
-                String[] parts = testInfo.split("\\s+");
-                if (parts.length > 0) {
-                    String fullTestName = parts[0];
-                    int lastDot = fullTestName.lastIndexOf(".");
-                    if (lastDot > 0) {
-                        testCase.put("className", fullTestName.substring(0, lastDot));
-                        testCase.put("testName", fullTestName.substring(lastDot + 1));
-                    } else {
-                        testCase.put("className", "testcases.AccountReceivableIT");
-                        testCase.put("testName", fullTestName);
-                    }
-                }
-            }
-
-            return testCase;
-        } catch (Exception e) {
-            System.err.println("Error parsing test case from log line: " + e.getMessage());
-            return null;
-        }
+        List<JenkinsTestCase> testCases = new ArrayList<>();
+        consoleLogParserService.extractTestCases(jobName, buildNumber, null, testCases::add);
+        return convertToDetailedFormat(testCases);
     }
 
     private List<Map<String, Object>> convertToDetailedFormat(List<JenkinsTestCase> testCases) {
@@ -424,6 +313,9 @@ public class JenkinsTestNGService {
 
         for (JenkinsTestCase testCase : testCases) {
             Map<String, Object> tcMap = new HashMap<>();
+            if (testCase.getId() != null) {
+                tcMap.put("id", testCase.getId());
+            }
             tcMap.put("className", testCase.getClassName());
             tcMap.put("testName", testCase.getTestName());
             tcMap.put("status", testCase.getStatus());
@@ -434,6 +326,10 @@ public class JenkinsTestNGService {
             if (testCase.getStackTrace() != null) {
                 tcMap.put("stackTrace", testCase.getStackTrace());
             }
+            // Stored rows load their failure text on demand from /testcases/{id}/failure-details
+            if (testCase.getFailureDetailId() != null) {
+                tcMap.put("hasFailureDetails", true);
+            }
             result.add(tcMap);
         }
 
@@ -458,72 +354,24 @@ public class JenkinsTestNGService {
         }
     }
 
-    // Helper methods for Jenkins API calls
-    private JsonNode fetchJobs() throws Exception {
-        String url = jenkinsUrl + "/api/json";
-        JsonNode response = sendGetRequest(url);
-        return response != null ? response.get("jobs") : null;
-    }
-
-    private JsonNode fetchLatestBuildDetails(String jobName) throws Exception {
-        String url = jenkinsUrl + "/job/" + jobName + "/api/json";
-        JsonNode response = sendGetRequest(url);
+    /**
+     * Immutable report built at generatedAt; replaced wholesale on refresh.
+     */
+    public static class ReportSnapshot {
+        private final Map<String, Object> report;
+        private final LocalDateTime generatedAt;
 
-        if (response != null && response.has("lastCompletedBuild") &&
-                !response.get("lastCompletedBuild").isNull()) {
-            int buildNumber = response.get("lastCompletedBuild").get("number").asInt();
-            return sendGetRequest(jenkinsUrl + "/job/" + jobName + "/" + buildNumber + "/api/json");
+        ReportSnapshot(Map<String, Object> report, LocalDateTime generatedAt) {
+            this.report = report;
+            this.generatedAt = generatedAt;
         }
-        return null;
-    }
-
-    private JsonNode fetchTestNGResults(String jobName, int buildNumber) throws Exception {
-        String url = jenkinsUrl + "/job/" + jobName + "/" + buildNumber + "/testngreports/api/json";
-        return sendGetRequest(url);
-    }
-
-    private JsonNode sendGetRequest(String urlString) throws Exception {
-        URL url = new URL(urlString);
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setRequestMethod("GET");
-        connection.setRequestProperty("Authorization", "Basic " + encodeCredentials());
-
-        int responseCode = connection.getResponseCode();
-        if (responseCode == 200) {
-            BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-            String inputLine;
-            StringBuilder response = new StringBuilder();
-
-            while ((inputLine = in.readLine()) != null) {
-                response.append(inputLine);
-            }
-            in.close();
 
-            return objectMapper.readTree(response.toString());
-        } else {
-            System.err.println("Failed to fetch data from: " + urlString + ". Response code: " + responseCode);
-            return null;
+        public Map<String, Object> getReport() {
+            return report;
         }
-    }
 
-    private HttpHeaders createAuthHeaders() {
-        HttpHeaders headers = new HttpHeaders();
-        if (jenkinsUsername != null && !jenkinsUsername.isEmpty() &&
-                jenkinsToken != null && !jenkinsToken.isEmpty()) {
-            String auth = jenkinsUsername + ":" + jenkinsToken;
-            String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
-            headers.set("Authorization", "Basic " + encodedAuth);
+        public LocalDateTime getGeneratedAt() {
+            return generatedAt;
         }
-        return headers;
-    }
-
-    private String encodeCredentials() {
-        String credentials = jenkinsUsername + ":" + jenkinsToken;
-        return Base64.getEncoder().encodeToString(credentials.getBytes());
-    }
-
-    private String formatTimestamp(long timestamp) {
-        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp),
-                java.time.ZoneId.systemDefault()).toString();
     }
-}
\ No newline at end of file
+}
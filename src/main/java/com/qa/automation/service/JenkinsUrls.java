@@ -0,0 +1,18 @@
+package com.qa.automation.service;
+
+/**
+ * Builds Jenkins URLs from a job's full name. Jobs inside folders are stored as
+ * "folder/sub/job" and map to /job/folder/job/sub/job/job on the server.
+ */
+public final class JenkinsUrls {
+
+    private JenkinsUrls() {}
+
+    public static String job(String jenkinsUrl, String jobName) {
+        return jenkinsUrl + "/job/" + jobName.replace("/", "/job/");
+    }
+
+    public static String build(String jenkinsUrl, String jobName, String buildNumber) {
+        return job(jenkinsUrl, jobName) + "/" + buildNumber;
+    }
+}
@@ -0,0 +1,278 @@
+package com.qa.automation.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.qa.automation.dto.JenkinsSyncReport.JobStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URLDecoder;
+import java.security.MessageDigest;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Push ingestion for Jenkins build notifications. Events go on a bounded queue,
+ * deduplicated by (job, build) while pending, and a small worker pool syncs each
+ * notified build through JenkinsService.syncBuild.
+ *
+ * Accepts the Notification plugin shape ({"name", "url", "build": {"number",
+ * "phase", "status"}}) and flat generic-webhook payloads with jobName/buildNumber.
+ */
+@Service
+public class JenkinsWebhookService {
+
+    public enum Outcome {
+        QUEUED, DUPLICATE, IGNORED, REJECTED
+    }
+
+    public static class WebhookEvent {
+        private final String jobName;
+        private final String buildNumber;
+        private final String phase;
+        private int attempts;
+
+        public WebhookEvent(String jobName, String buildNumber, String phase) {
+            this.jobName = jobName;
+            this.buildNumber = buildNumber;
+            this.phase = phase;
+        }
+
+        public String getJobName() {
+            return jobName;
+        }
+
+        public String getBuildNumber() {
+            return buildNumber;
+        }
+
+        public String getPhase() {
+            return phase;
+        }
+
+        String key() {
+            return jobName + "#" + buildNumber;
+        }
+    }
+
+    // Phases of the Notification plugin that mean the build result is final
+    private static final Set<String> COMPLETED_PHASES = Set.of("COMPLETED", "FINALIZED", "FINISHED");
+    private static final int MAX_ATTEMPTS = 5;
+
+    @Autowired
+    private JenkinsService jenkinsService;
+
+    @Value("${jenkins.webhook.token:}")
+    private String webhookToken;
+
+    @Value("${jenkins.webhook.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${jenkins.webhook.workers:2}")
+    private int workerCount;
+
+    // Delay before retrying a build whose job was busy with another sync
+    @Value("${jenkins.webhook.retry-delay-seconds:10}")
+    private long retryDelaySeconds;
+
+    private BlockingQueue<WebhookEvent> queue;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private ExecutorService workers;
+    private ScheduledExecutorService retries;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong ignored = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @PostConstruct
+    void startWorkers() {
+        queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        AtomicInteger threadCounter = new AtomicInteger();
+        int threads = Math.max(1, workerCount);
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "jenkins-webhook-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < threads; i++) {
+            workers.execute(this::drain);
+        }
+        retries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jenkins-webhook-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!isEnabled()) {
+            System.out.println("jenkins.webhook.token is not set; Jenkins webhook rejects all notifications");
+        }
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        workers.shutdownNow();
+        retries.shutdownNow();
+    }
+
+    /**
+     * The webhook is only served when a token is configured; without one every
+     * notification is refused rather than accepted unauthenticated.
+     */
+    public boolean isEnabled() {
+        return webhookToken != null && !webhookToken.isEmpty();
+    }
+
+    public boolean isAuthorized(String token) {
+        if (!isEnabled()) {
+            return false;
+        }
+        return token != null && MessageDigest.isEqual(
+                webhookToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Extract the job and build from a notification payload.
+     *
+     * @return the event, or null when the payload names no job or build
+     */
+    public WebhookEvent parse(JsonNode payload) {
+        if (payload == null || !payload.isObject()) {
+            return null;
+        }
+        JsonNode build = payload.path("build");
+
+        // The job URL carries the full folder path; "name" is only the leaf name
+        String jobName = jobNameFromUrl(text(payload, "url"));
+        if (jobName == null) {
+            jobName = firstText(payload, "fullName", "jobName", "job_name", "name");
+        }
+        String buildNumber = firstText(build, "number");
+        if (buildNumber == null) {
+            buildNumber = firstText(payload, "buildNumber", "build_number", "number");
+        }
+        String phase = firstText(build, "phase");
+        if (phase == null) {
+            phase = firstText(payload, "phase");
+        }
+
+        if (jobName == null || buildNumber == null) {
+            return null;
+        }
+        return new WebhookEvent(jobName, buildNumber, phase);
+    }
+
+    public Outcome submit(WebhookEvent event) {
+        received.incrementAndGet();
+        if (event.getPhase() != null && !COMPLETED_PHASES.contains(event.getPhase().toUpperCase())) {
+            ignored.incrementAndGet();
+            return Outcome.IGNORED;
+        }
+        return enqueue(event);
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("received", received.get());
+        stats.put("queued", queued.get());
+        stats.put("duplicates", duplicates.get());
+        stats.put("ignored", ignored.get());
+        stats.put("rejected", rejected.get());
+        stats.put("processed", processed.get());
+        stats.put("failed", failed.get());
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queueCapacity);
+        return stats;
+    }
+
+    private Outcome enqueue(WebhookEvent event) {
+        String key = event.key();
+        if (!pending.add(key)) {
+            duplicates.incrementAndGet();
+            return Outcome.DUPLICATE;
+        }
+        if (!queue.offer(event)) {
+            pending.remove(key);
+            rejected.incrementAndGet();
+            return Outcome.REJECTED;
+        }
+        queued.incrementAndGet();
+        return Outcome.QUEUED;
+    }
+
+    private void drain() {
+        while (!Thread.currentThread().isInterrupted()) {
+            WebhookEvent event;
+            try {
+                event = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            // Released before syncing, so a notification arriving mid-sync queues a fresh pass
+            pending.remove(event.key());
+            process(event);
+        }
+    }
+
+    private void process(WebhookEvent event) {
+        try {
+            JobStatus status = jenkinsService.syncBuild(event.getJobName(), event.getBuildNumber());
+            if (status == JobStatus.SKIPPED && ++event.attempts < MAX_ATTEMPTS) {
+                retries.schedule(() -> enqueue(event), retryDelaySeconds, TimeUnit.SECONDS);
+                return;
+            }
+            processed.incrementAndGet();
+            System.out.println("Webhook sync of " + event.getJobName() + " #" + event.getBuildNumber() + ": " + status);
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            System.err.println("Webhook sync of " + event.getJobName() + " #" + event.getBuildNumber() +
+                    " failed: " + e.getMessage());
+        }
+    }
+
+    // "job/folder/job/name/" or an absolute URL of the same shape -> "folder/name"
+    static String jobNameFromUrl(String url) {
+        if (url == null || url.isEmpty()) {
+            return null;
+        }
+        List<String> segments = new ArrayList<>();
+        String[] parts = url.split("/");
+        for (int i = 0; i < parts.length - 1; i++) {
+            if ("job".equals(parts[i]) && !parts[i + 1].isEmpty()) {
+                segments.add(URLDecoder.decode(parts[i + 1], StandardCharsets.UTF_8));
+                i++;
+            }
+        }
+        return segments.isEmpty() ? null : String.join("/", segments);
+    }
+
+    private static String firstText(JsonNode node, String... fields) {
+        for (String field : fields) {
+            String value = text(node, field);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull() || value.isContainerNode()) {
+            return null;
+        }
+        String text = value.asText().trim();
+        return text.isEmpty() ? null : text;
+    }
+}
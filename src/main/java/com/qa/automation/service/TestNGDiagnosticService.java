@@ -1,12 +1,9 @@
 package com.qa.automation.service;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -15,16 +12,12 @@ import java.util.*;
 @Service
 public class TestNGDiagnosticService {
 
+    @Autowired
+    private JenkinsApiClient jenkinsApiClient;
+
     @Value("${jenkins.url:}")
     private String jenkinsUrl;
 
-    @Value("${jenkins.username:}")
-    private String jenkinsUsername;
-
-    @Value("${jenkins.token:}")
-    private String jenkinsToken;
-
-    private final RestTemplate restTemplate = new RestTemplate();
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     public Map<String, Object> analyzeTestNGStructure(String jobName, String buildNumber) {
@@ -32,13 +25,9 @@ public class TestNGDiagnosticService {
 
         try {
             // Fetch raw TestNG JSON
-            String testngUrl = jenkinsUrl + "/job/" + jobName + "/" + buildNumber + "/testngreports/api/json";
+            String testngUrl = JenkinsUrls.build(jenkinsUrl, jobName, buildNumber) + "/testngreports/api/json";
 
-            HttpHeaders headers = createAuthHeaders();
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(
-                    testngUrl, HttpMethod.GET, entity, String.class);
+            ResponseEntity<String> response = jenkinsApiClient.get(testngUrl);
 
             if (response.getStatusCode().is2xxSuccessful()) {
                 String rawJson = response.getBody();
@@ -166,14 +155,4 @@ public class TestNGDiagnosticService {
         return paths;
     }
 
-    private HttpHeaders createAuthHeaders() {
-        HttpHeaders headers = new HttpHeaders();
-        if (jenkinsUsername != null && !jenkinsUsername.isEmpty() &&
-                jenkinsToken != null && !jenkinsToken.isEmpty()) {
-            String auth = jenkinsUsername + ":" + jenkinsToken;
-            String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
-            headers.set("Authorization", "Basic " + encodedAuth);
-        }
-        return headers;
-    }
 }
\ No newline at end of file
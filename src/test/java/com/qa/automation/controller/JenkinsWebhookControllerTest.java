@@ -0,0 +1,199 @@
+package com.qa.automation.controller;
+
+import com.qa.automation.config.JwtFilter;
+import com.qa.automation.config.SecurityConfig;
+import com.qa.automation.dto.JenkinsSyncReport.JobStatus;
+import com.qa.automation.repository.JenkinsResultRepository;
+import com.qa.automation.repository.ProjectRepository;
+import com.qa.automation.repository.TesterRepository;
+import com.qa.automation.service.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Posts Notification plugin payloads to /api/jenkins/webhook against the real
+ * queue, with JenkinsService standing in for Jenkins.
+ */
+@WebMvcTest(controllers = JenkinsController.class, properties = {
+        "server.port=0",
+        "jenkins.webhook.token=secret",
+        "jenkins.webhook.workers=1"
+})
+@Import({SecurityConfig.class, JwtFilter.class, JenkinsWebhookService.class})
+class JenkinsWebhookControllerTest {
+
+    private static final String COMPLETED_PAYLOAD = "{\"name\":\"api-tests\",\"url\":\"job/team/job/api-tests/\"," +
+            "\"build\":{\"number\":42,\"phase\":\"COMPLETED\",\"status\":\"SUCCESS\"}}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JenkinsWebhookService jenkinsWebhookService;
+
+    // Stub Jenkins: every notified build is synced through this mock
+    @MockBean
+    private JenkinsService jenkinsService;
+
+    @MockBean
+    private JWTService jwtService;
+    @MockBean
+    private UserDetailsService userDetailsService;
+    @MockBean
+    private JenkinsTestNGService jenkinsTestNGService;
+    @MockBean
+    private JenkinsApiClient jenkinsApiClient;
+    @MockBean
+    private JenkinsBackfillService jenkinsBackfillService;
+    @MockBean
+    private JenkinsRequestGuard jenkinsRequestGuard;
+    @MockBean
+    private JenkinsFailureDetailService jenkinsFailureDetailService;
+    @MockBean
+    private JenkinsFailureSignatureService jenkinsFailureSignatureService;
+    @MockBean
+    private JenkinsTestHistoryService jenkinsTestHistoryService;
+    @MockBean
+    private JenkinsBuildDiffService jenkinsBuildDiffService;
+    @MockBean
+    private JenkinsRegressionEventService jenkinsRegressionEventService;
+    @MockBean
+    private JenkinsDurationSketchService jenkinsDurationSketchService;
+    @MockBean
+    private JenkinsTestIdentityService jenkinsTestIdentityService;
+    @MockBean
+    private TestNGXMLParserService testNGXMLParserService;
+    @MockBean
+    private JenkinsResultRepository jenkinsResultRepository;
+    @MockBean
+    private TesterRepository testerRepository;
+    @MockBean
+    private ProjectRepository projectRepository;
+
+    @Test
+    void completedBuildIsQueuedAndSyncedByFolderPath() throws Exception {
+        CountDownLatch synced = new CountDownLatch(1);
+        when(jenkinsService.syncBuild("team/api-tests", "42")).thenAnswer(invocation -> {
+            synced.countDown();
+            return JobStatus.SYNCED;
+        });
+
+        mockMvc.perform(post("/api/jenkins/webhook")
+                        .header("X-Jenkins-Token", "secret")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(COMPLETED_PAYLOAD))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobName").value("team/api-tests"))
+                .andExpect(jsonPath("$.buildNumber").value("42"))
+                .andExpect(jsonPath("$.outcome").value("QUEUED"));
+
+        assertTrue(synced.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void tokenMayBeSentAsQueryParameter() throws Exception {
+        when(jenkinsService.syncBuild(anyString(), anyString())).thenReturn(JobStatus.SYNCED);
+
+        mockMvc.perform(post("/api/jenkins/webhook")
+                        .param("token", "secret")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"jobName\":\"nightly\",\"buildNumber\":\"7\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobName").value("nightly"));
+    }
+
+    @Test
+    void badTokenIsRejected() throws Exception {
+        mockMvc.perform(post("/api/jenkins/webhook")
+                        .header("X-Jenkins-Token", "wrong")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(COMPLETED_PAYLOAD))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(post("/api/jenkins/webhook")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(COMPLETED_PAYLOAD))
+                .andExpect(status().isUnauthorized());
+
+        verify(jenkinsService, never()).syncBuild(anyString(), anyString());
+    }
+
+    @Test
+    void webhookIsDisabledWithoutConfiguredToken() throws Exception {
+        ReflectionTestUtils.setField(jenkinsWebhookService, "webhookToken", "");
+        try {
+            mockMvc.perform(post("/api/jenkins/webhook")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(COMPLETED_PAYLOAD))
+                    .andExpect(status().isForbidden());
+            mockMvc.perform(post("/api/jenkins/webhook")
+                            .header("X-Jenkins-Token", "")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(COMPLETED_PAYLOAD))
+                    .andExpect(status().isForbidden());
+        } finally {
+            ReflectionTestUtils.setField(jenkinsWebhookService, "webhookToken", "secret");
+        }
+        verify(jenkinsService, never()).syncBuild(anyString(), anyString());
+    }
+
+    @Test
+    void nonFinalPhaseIsIgnored() throws Exception {
+        mockMvc.perform(post("/api/jenkins/webhook")
+                        .header("X-Jenkins-Token", "secret")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"api-tests\",\"build\":{\"number\":43,\"phase\":\"STARTED\"}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.outcome").value("IGNORED"));
+
+        verify(jenkinsService, never()).syncBuild(anyString(), anyString());
+    }
+
+    @Test
+    void pendingBuildIsDeduplicated() throws Exception {
+        CountDownLatch firstSyncStarted = new CountDownLatch(1);
+        CountDownLatch releaseSync = new CountDownLatch(1);
+        CountDownLatch secondSyncDone = new CountDownLatch(2);
+        when(jenkinsService.syncBuild("team/api-tests", "42")).thenAnswer(invocation -> {
+            firstSyncStarted.countDown();
+            releaseSync.await(5, TimeUnit.SECONDS);
+            secondSyncDone.countDown();
+            return JobStatus.SYNCED;
+        });
+
+        postCompleted().andExpect(jsonPath("$.outcome").value("QUEUED"));
+        // The single worker now holds the first event, so the build is no longer pending
+        assertTrue(firstSyncStarted.await(5, TimeUnit.SECONDS));
+
+        postCompleted().andExpect(jsonPath("$.outcome").value("QUEUED"));
+        postCompleted().andExpect(status().isAccepted()).andExpect(jsonPath("$.outcome").value("DUPLICATE"));
+        postCompleted().andExpect(jsonPath("$.outcome").value("DUPLICATE"));
+
+        releaseSync.countDown();
+        assertTrue(secondSyncDone.await(5, TimeUnit.SECONDS));
+        verify(jenkinsService, times(2)).syncBuild("team/api-tests", "42");
+    }
+
+    private org.springframework.test.web.servlet.ResultActions postCompleted() throws Exception {
+        return mockMvc.perform(post("/api/jenkins/webhook")
+                .header("X-Jenkins-Token", "secret")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(COMPLETED_PAYLOAD));
+    }
+}
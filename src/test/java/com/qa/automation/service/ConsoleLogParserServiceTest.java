@@ -0,0 +1,59 @@
+package com.qa.automation.service;
+
+import org.apache.hc.core5.http.io.EofSensorInputStream;
+import org.apache.hc.core5.http.io.EofSensorWatcher;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsoleLogParserServiceTest {
+
+    @Test
+    void budgetAbortsTheHttpStreamInsteadOfDrainingIt() throws Exception {
+        AtomicBoolean aborted = new AtomicBoolean();
+        EofSensorInputStream body = new EofSensorInputStream(new ByteArrayInputStream(new byte[10_000]),
+                new EofSensorWatcher() {
+                    @Override
+                    public boolean eofDetected(InputStream wrapped) {
+                        return true;
+                    }
+
+                    @Override
+                    public boolean streamClosed(InputStream wrapped) {
+                        return true;
+                    }
+
+                    @Override
+                    public boolean streamAbort(InputStream wrapped) {
+                        aborted.set(true);
+                        return true;
+                    }
+                });
+
+        ConsoleLogParserService.BudgetedInputStream input =
+                new ConsoleLogParserService.BudgetedInputStream(body, 4_096);
+        byte[] buffer = new byte[1_000];
+        long total = 0;
+        int n;
+        while ((n = input.read(buffer, 0, buffer.length)) != -1) {
+            total += n;
+        }
+
+        assertEquals(4_096, total);
+        assertTrue(input.isExhausted());
+        assertTrue(aborted.get());
+    }
+
+    @Test
+    void logWithinBudgetIsReadToTheEnd() throws Exception {
+        ConsoleLogParserService.BudgetedInputStream input =
+                new ConsoleLogParserService.BudgetedInputStream(new ByteArrayInputStream(new byte[100]), 4_096);
+
+        assertEquals(100, input.readAllBytes().length);
+        assertFalse(input.isExhausted());
+    }
+}
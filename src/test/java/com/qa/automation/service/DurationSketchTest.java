@@ -0,0 +1,159 @@
+package com.qa.automation.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurationSketchTest {
+
+    private static final double RELATIVE_ACCURACY = 0.02;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double[] QUANTILES = {0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 0.999, 1};
+
+    @Test
+    void emptySketchHasNoQuantiles() {
+        DurationSketch sketch = new DurationSketch();
+
+        assertEquals(0, sketch.getCount());
+        assertNull(sketch.quantile(0.5));
+        assertNull(DurationSketch.decode(sketch.encode()).quantile(0.5));
+        assertEquals(0, DurationSketch.decode(null).getCount());
+        assertEquals(0, DurationSketch.decode(new byte[0]).getCount());
+    }
+
+    @Test
+    void quantilesStayWithinTheRelativeErrorBound() {
+        Random random = new Random(42);
+        double[] values = new double[20000];
+        DurationSketch sketch = new DurationSketch();
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal around a second, spanning milliseconds to minutes
+            values[i] = 0.001 + Math.exp(random.nextGaussian() * 2);
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, sketch.getCount());
+        for (double q : QUANTILES) {
+            double exact = values[(int) Math.floor(q * (values.length - 1))];
+            double estimate = sketch.quantile(q);
+            assertTrue(Math.abs(estimate - exact) <= exact * RELATIVE_ACCURACY + 1e-12,
+                    "q=" + q + " exact=" + exact + " estimate=" + estimate);
+        }
+    }
+
+    @Test
+    void valuesOnBucketBoundariesStayWithinTheBound() {
+        DurationSketch sketch = new DurationSketch();
+        for (int k = -150; k <= 300; k += 50) {
+            double value = Math.pow(GAMMA, k);
+            DurationSketch single = new DurationSketch();
+            single.add(value);
+            assertEquals(value, single.quantile(0.5), value * RELATIVE_ACCURACY * (1 + 1e-9), "value=" + value);
+            sketch.add(value);
+        }
+        assertEquals(10, sketch.getCount());
+    }
+
+    @Test
+    void encodeDecodeRoundTripPreservesEveryBucket() {
+        Random random = new Random(7);
+        DurationSketch sketch = new DurationSketch();
+        sketch.add(0.0);
+        sketch.add(0.0002);
+        for (int i = 0; i < 5000; i++) {
+            // Sub-second values have negative bucket indexes, so deltas take both signs
+            sketch.add(0.002 + random.nextDouble() * (random.nextBoolean() ? 0.5 : 3600));
+        }
+        sketch.add(86400);
+
+        byte[] encoded = sketch.encode();
+        DurationSketch decoded = DurationSketch.decode(encoded);
+
+        assertEquals(sketch.getCount(), decoded.getCount());
+        for (double q : QUANTILES) {
+            assertEquals(sketch.quantile(q), decoded.quantile(q), "q=" + q);
+        }
+        assertArrayEquals(encoded, decoded.encode());
+    }
+
+    @Test
+    void steadyTestEncodesToAFewBytes() {
+        DurationSketch sketch = new DurationSketch();
+        for (int i = 0; i < 1000; i++) {
+            sketch.add(2.0 + (i % 5) * 0.01);
+        }
+
+        assertTrue(sketch.encode().length < 16, "encoded " + sketch.encode().length + " bytes");
+    }
+
+    @Test
+    void decodedSketchKeepsAcceptingValues() {
+        DurationSketch sketch = new DurationSketch();
+        for (int i = 1; i <= 100; i++) {
+            sketch.add(i);
+        }
+        DurationSketch decoded = DurationSketch.decode(sketch.encode());
+        for (int i = 101; i <= 200; i++) {
+            sketch.add(i);
+            decoded.add(i);
+        }
+
+        assertArrayEquals(sketch.encode(), decoded.encode());
+    }
+
+    @Test
+    void unknownFormatIsRejected() {
+        byte[] encoded = new DurationSketch().encode();
+        encoded[0] = 99;
+
+        assertThrows(IllegalArgumentException.class, () -> DurationSketch.decode(encoded));
+    }
+
+    @Test
+    void subMillisecondAndInvalidDurationsCountAsZero() {
+        DurationSketch sketch = new DurationSketch();
+        sketch.add(0.0);
+        sketch.add(0.0009);
+        sketch.add(-1.0);
+        sketch.add(Double.NaN);
+        sketch.add(10.0);
+
+        assertEquals(5, sketch.getCount());
+        assertEquals(0.0, sketch.quantile(0));
+        assertEquals(0.0, sketch.quantile(0.75));
+        assertEquals(10.0, sketch.quantile(1), 10.0 * RELATIVE_ACCURACY);
+
+        DurationSketch decoded = DurationSketch.decode(sketch.encode());
+        assertEquals(5, decoded.getCount());
+        assertEquals(0.0, decoded.quantile(0.75));
+    }
+
+    @Test
+    void bucketsBeyondTheCapCollapseIntoTheLowest() {
+        DurationSketch sketch = new DurationSketch();
+        // One value per bucket, from a millisecond up; 700 buckets exceed the 512 cap
+        for (int k = 0; k < 700; k++) {
+            sketch.add(0.0011 * Math.pow(GAMMA, k));
+        }
+
+        assertEquals(512, ReflectionTestUtils.getField(sketch, "size"));
+        assertEquals(700, sketch.getCount());
+        // Upper quantiles keep their accuracy; the collapsed low values report the lowest kept bucket
+        double top = 0.0011 * Math.pow(GAMMA, 699);
+        assertEquals(top, sketch.quantile(1), top * RELATIVE_ACCURACY * (1 + 1e-9));
+        double p90 = 0.0011 * Math.pow(GAMMA, Math.floor(0.9 * 699));
+        assertEquals(p90, sketch.quantile(0.9), p90 * RELATIVE_ACCURACY * (1 + 1e-9));
+        double lowestKept = 0.0011 * Math.pow(GAMMA, 700 - 512);
+        assertEquals(lowestKept, sketch.quantile(0), lowestKept * RELATIVE_ACCURACY * (1 + 1e-9));
+        assertEquals(sketch.quantile(0), sketch.quantile((700.0 - 512) / 699));
+
+        DurationSketch decoded = DurationSketch.decode(sketch.encode());
+        assertEquals(512, ReflectionTestUtils.getField(decoded, "size"));
+        assertEquals(sketch.quantile(0.5), decoded.quantile(0.5));
+    }
+}
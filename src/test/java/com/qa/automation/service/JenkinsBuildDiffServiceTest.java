@@ -0,0 +1,232 @@
+package com.qa.automation.service;
+
+import com.qa.automation.model.JenkinsResult;
+import com.qa.automation.model.JenkinsTestIdentity;
+import com.qa.automation.repository.JenkinsResultRepository;
+import com.qa.automation.repository.JenkinsTestIdentityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JenkinsBuildDiffServiceTest {
+
+    private static final String JOB = "team/api-tests";
+
+    private final StoredTestCases storedTestCases = new StoredTestCases();
+    private final JenkinsResultRepository resultRepository = mock(JenkinsResultRepository.class);
+    private JenkinsBuildDiffService service;
+
+    @BeforeEach
+    void setUp() {
+        JenkinsTestIdentityRepository identityRepository = mock(JenkinsTestIdentityRepository.class);
+        when(identityRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<JenkinsTestIdentity> identities = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                identities.add(new JenkinsTestIdentity(id, "com.example.Suite", String.format("test%05d", id)));
+            }
+            return identities;
+        });
+        service = new JenkinsBuildDiffService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", storedTestCases);
+        ReflectionTestUtils.setField(service, "jenkinsResultRepository", resultRepository);
+        ReflectionTestUtils.setField(service, "jenkinsTestIdentityRepository", identityRepository);
+        ReflectionTestUtils.setField(service, "durationRegressionFactor", 1.5);
+        ReflectionTestUtils.setField(service, "durationRegressionMinSeconds", 1.0);
+
+        JenkinsResult from = build(10L, "10");
+        JenkinsResult to = build(11L, "11");
+        when(resultRepository.findByJobNameAndBuildNumber(JOB, "10")).thenReturn(Optional.of(from));
+        when(resultRepository.findByJobNameAndBuildNumber(JOB, "11")).thenReturn(Optional.of(to));
+        when(resultRepository.findLatestByJobName(JOB)).thenReturn(List.of(to, from));
+    }
+
+    @Test
+    void classifiesAddedRemovedAndChangedTests() {
+        storedTestCases.add(10L, 1, "PASSED", 1.0);   // unchanged
+        storedTestCases.add(10L, 2, "PASSED", 1.0);   // newly failing
+        storedTestCases.add(10L, 3, "FAILED", 1.0);   // newly passing
+        storedTestCases.add(10L, 4, "FAILED", 1.0);   // still failing
+        storedTestCases.add(10L, 5, "PASSED", 1.0);   // removed
+        storedTestCases.add(10L, 7, "PASSED", 2.0);   // slower
+        storedTestCases.add(10L, 8, "FAILED", 1.0);   // failed, then skipped
+        storedTestCases.add(11L, 1, "PASSED", 1.2);
+        storedTestCases.add(11L, 2, "FAILED", 1.0);
+        storedTestCases.add(11L, 3, "PASSED", 1.0);
+        storedTestCases.add(11L, 4, "FAILED", 1.0);
+        storedTestCases.add(11L, 6, "PASSED", 1.0);   // added
+        storedTestCases.add(11L, 7, "PASSED", 5.0);
+        storedTestCases.add(11L, 8, "SKIPPED", null);
+
+        Map<String, Object> diff = service.diff(JOB, null, null, 100);
+
+        assertEquals("10", diff.get("fromBuild"));
+        assertEquals("11", diff.get("toBuild"));
+        Map<String, Object> summary = summary(diff);
+        assertEquals(1L, summary.get("newlyFailing"));
+        assertEquals(1L, summary.get("newlyPassing"));
+        assertEquals(1L, summary.get("added"));
+        assertEquals(1L, summary.get("removed"));
+        assertEquals(1L, summary.get("stillFailing"));
+        assertEquals(3L, summary.get("unchanged"));
+        assertEquals(1L, summary.get("durationRegressed"));
+
+        assertEquals(List.of(2L), ids(diff, "newlyFailing"));
+        assertEquals(List.of(3L), ids(diff, "newlyPassing"));
+        assertEquals(List.of(6L), ids(diff, "added"));
+        assertEquals(List.of(5L), ids(diff, "removed"));
+        assertEquals(List.of(7L), ids(diff, "durationRegressed"));
+        assertEquals("test00002", entries(diff, "newlyFailing").get(0).get("testName"));
+        assertNull(entries(diff, "added").get(0).get("fromStatus"));
+        assertNull(entries(diff, "removed").get(0).get("toStatus"));
+    }
+
+    @Test
+    void foldsDataProviderInvocationsIntoOneOutcome() {
+        // Any failed invocation fails the test; durations add up
+        storedTestCases.add(10L, 1, "PASSED", 1.0);
+        storedTestCases.add(10L, 1, "PASSED", 1.0);
+        storedTestCases.add(10L, 2, "SKIPPED", null);
+        storedTestCases.add(10L, 2, "FAILED", 0.5);
+        storedTestCases.add(11L, 1, "PASSED", 1.0);
+        storedTestCases.add(11L, 1, "FAILED", 1.0);
+        storedTestCases.add(11L, 1, "PASSED", 1.0);
+        storedTestCases.add(11L, 2, "SKIPPED", null);
+        storedTestCases.add(11L, 2, "PASSED", 0.5);
+
+        Map<String, Object> diff = service.diff(JOB, "10", "11", 100);
+
+        assertEquals(List.of(1L), ids(diff, "newlyFailing"));
+        assertEquals(List.of(3.0), entries(diff, "newlyFailing").stream()
+                .map(entry -> entry.get("toDuration")).collect(Collectors.toList()));
+        assertEquals(List.of(2L), ids(diff, "newlyPassing"));
+        assertEquals("FAILED", entries(diff, "newlyPassing").get(0).get("fromStatus"));
+        assertEquals(0L, summary(diff).get("added"));
+        assertEquals(0L, summary(diff).get("removed"));
+    }
+
+    @Test
+    void mergesAcrossPageBoundaries() {
+        int size = JenkinsBuildDiffService.PAGE_SIZE;
+        // The last test of the first page has a second invocation on the next page
+        for (int identity = 1; identity <= size; identity++) {
+            storedTestCases.add(10L, identity, "PASSED", 1.0);
+        }
+        storedTestCases.add(10L, size, "FAILED", 1.0);
+        storedTestCases.add(10L, size + 1, "PASSED", 1.0);
+        // The newer build is exactly one page long and lacks the last test
+        for (int identity = 1; identity <= size; identity++) {
+            storedTestCases.add(11L, identity, "PASSED", 1.0);
+        }
+
+        Map<String, Object> diff = service.diff(JOB, "10", "11", 10);
+
+        Map<String, Object> summary = summary(diff);
+        assertEquals(1L, summary.get("newlyPassing"));
+        assertEquals(1L, summary.get("removed"));
+        assertEquals(0L, summary.get("added"));
+        assertEquals((long) size - 1, summary.get("unchanged"));
+        assertEquals(List.of((long) size), ids(diff, "newlyPassing"));
+        assertEquals(List.of((long) size + 1), ids(diff, "removed"));
+        // Two pages of the older build, and one full page plus an empty one of the newer
+        assertEquals(Map.of(10L, 2, 11L, 2), storedTestCases.queriesByResult);
+    }
+
+    @Test
+    void limitsEntriesButCountsEveryChange() {
+        for (int identity = 1; identity <= 30; identity++) {
+            storedTestCases.add(11L, identity, "PASSED", 1.0);
+        }
+        storedTestCases.add(10L, 100, "PASSED", 1.0);
+
+        Map<String, Object> diff = service.diff(JOB, "10", "11", 5);
+
+        assertEquals(30L, summary(diff).get("added"));
+        assertEquals(5, entries(diff, "added").size());
+        assertEquals(5, diff.get("limit"));
+    }
+
+    @Test
+    void unknownBuildIsRejected() {
+        when(resultRepository.findByJobNameAndBuildNumber(JOB, "99")).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> service.diff(JOB, "99", "11", 10));
+    }
+
+    private static JenkinsResult build(long id, String buildNumber) {
+        JenkinsResult result = new JenkinsResult(JOB, buildNumber, "SUCCESS");
+        result.setId(id);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> summary(Map<String, Object> diff) {
+        return (Map<String, Object>) diff.get("summary");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> entries(Map<String, Object> diff, String category) {
+        return (List<Map<String, Object>>) diff.get(category);
+    }
+
+    private static List<Long> ids(Map<String, Object> diff, String category) {
+        return entries(diff, category).stream().map(entry -> (Long) entry.get("testIdentityId")).collect(Collectors.toList());
+    }
+
+    /**
+     * jenkins_test_cases in memory, answering the cursor's keyset page query.
+     */
+    private static final class StoredTestCases extends JdbcTemplate {
+        private final Map<Long, List<Object[]>> rowsByResult = new HashMap<>();
+        final Map<Long, Integer> queriesByResult = new HashMap<>();
+        private long nextId = 1;
+
+        void add(long resultId, long testIdentityId, String status, Double duration) {
+            rowsByResult.computeIfAbsent(resultId, id -> new ArrayList<>())
+                    .add(new Object[]{nextId++, testIdentityId, status, duration});
+        }
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            long resultId = (Long) args[0];
+            long lastIdentity = (Long) args[1];
+            long lastId = (Long) args[3];
+            queriesByResult.merge(resultId, 1, Integer::sum);
+            List<Object[]> page = rowsByResult.getOrDefault(resultId, List.of()).stream()
+                    .filter(row -> (Long) row[1] > lastIdentity || ((Long) row[1] == lastIdentity && (Long) row[0] > lastId))
+                    .sorted(Comparator.comparingLong((Object[] row) -> (Long) row[1]).thenComparingLong(row -> (Long) row[0]))
+                    .limit(JenkinsBuildDiffService.PAGE_SIZE)
+                    .collect(Collectors.toList());
+            List<T> mapped = new ArrayList<>(page.size());
+            try {
+                for (int i = 0; i < page.size(); i++) {
+                    mapped.add(rowMapper.mapRow(resultSetOf(page.get(i)), i));
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return mapped;
+        }
+
+        private static ResultSet resultSetOf(Object[] row) throws SQLException {
+            ResultSet resultSet = mock(ResultSet.class);
+            when(resultSet.getLong(1)).thenReturn((Long) row[0]);
+            when(resultSet.getLong(2)).thenReturn((Long) row[1]);
+            when(resultSet.getString(3)).thenReturn((String) row[2]);
+            when(resultSet.getObject(4)).thenReturn(row[3]);
+            when(resultSet.getDouble(4)).thenReturn(row[3] != null ? (Double) row[3] : 0.0);
+            return resultSet;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.qa.automation.service;
+
+import com.qa.automation.dto.JenkinsJobSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JenkinsSyncSchedulerTest {
+
+    private static final String JOB = "team/api-tests";
+
+    private final JenkinsService jenkinsService = mock(JenkinsService.class);
+    private final JenkinsRequestGuard jenkinsRequestGuard = mock(JenkinsRequestGuard.class);
+    private JenkinsSyncScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new JenkinsSyncScheduler();
+        ReflectionTestUtils.setField(scheduler, "jenkinsService", jenkinsService);
+        ReflectionTestUtils.setField(scheduler, "jenkinsRequestGuard", jenkinsRequestGuard);
+        ReflectionTestUtils.setField(scheduler, "jenkinsUrl", "http://jenkins.example");
+        ReflectionTestUtils.setField(scheduler, "enabled", true);
+        ReflectionTestUtils.setField(scheduler, "discoveryIntervalMinutes", 30L);
+        ReflectionTestUtils.setField(scheduler, "cadenceMultiplier", 1.0);
+        when(jenkinsService.discoverJobs()).thenReturn(List.of(new JenkinsJobSnapshot(JOB)));
+    }
+
+    @Test
+    void dueJobsBetweenDiscoveryPassesAreFetchedByName() {
+        scheduler.tick();
+        verify(jenkinsService, times(1)).discoverJobs();
+
+        nextDueAt().put(JOB, 0L);
+        scheduler.tick();
+
+        verify(jenkinsService, times(1)).discoverJobs();
+        verify(jenkinsService).submitJobSyncsByName(List.of(JOB));
+        verify(jenkinsService, never()).submitJobSyncs(any());
+    }
+
+    @Test
+    void ticksWithNothingDueDoNotContactJenkins() {
+        scheduler.tick();
+        scheduler.tick();
+        scheduler.tick();
+
+        verify(jenkinsService, times(1)).discoverJobs();
+        verify(jenkinsService, never()).submitJobSyncsByName(anyCollection());
+        verify(jenkinsService, never()).isSyncInFlight(anyString());
+    }
+
+    @Test
+    void discoveryRunsAgainOnceTheIntervalHasPassed() {
+        scheduler.tick();
+        ReflectionTestUtils.setField(scheduler, "lastDiscoveryAt", 0L);
+
+        scheduler.tick();
+
+        verify(jenkinsService, times(2)).discoverJobs();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> nextDueAt() {
+        return (Map<String, Long>) ReflectionTestUtils.getField(scheduler, "nextDueAt");
+    }
+}
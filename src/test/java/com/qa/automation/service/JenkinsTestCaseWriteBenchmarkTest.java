@@ -0,0 +1,121 @@
+package com.qa.automation.service;
+
+import com.qa.automation.model.JenkinsResult;
+import com.qa.automation.model.JenkinsTestCase;
+import com.qa.automation.repository.JenkinsResultRepository;
+import com.qa.automation.repository.JenkinsTestCaseRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MariaDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rows/sec of test-case ingestion through JenkinsTestCaseWriter on a real MariaDB.
+ * "Per row" pins the session's JDBC batch size to 1, which gives the one round trip
+ * per insert that IDENTITY ids forced; "batched" is the configured write path
+ * (pooled sequence ids, batch_size 500, ordered inserts, useBulkStmts).
+ * Needs Docker; skipped without it.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type=WARN",
+        "logging.level.org.hibernate.orm.jdbc.bind=WARN"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JenkinsTestCaseWriter.class, JenkinsTestIdentityService.class, JenkinsFailureDetailService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class JenkinsTestCaseWriteBenchmarkTest {
+
+    private static final int ROWS = 10000;
+    private static final int WARM_UP_ROWS = 2000;
+
+    @Container
+    static final MariaDBContainer<?> MARIADB = new MariaDBContainer<>("mariadb:10.11");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MARIADB::getJdbcUrl);
+        registry.add("spring.datasource.username", MARIADB::getUsername);
+        registry.add("spring.datasource.password", MARIADB::getPassword);
+    }
+
+    @Autowired
+    private JenkinsTestCaseWriter jenkinsTestCaseWriter;
+
+    @Autowired
+    private JenkinsResultRepository jenkinsResultRepository;
+
+    @Autowired
+    private JenkinsTestCaseRepository jenkinsTestCaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void batchedInsertsOutpaceOneRoundTripPerRow() {
+        // Warm up the connection pool, JIT and identity cache on both paths
+        ingest("warm-up-per-row", WARM_UP_ROWS, 1);
+        ingest("warm-up-batched", WARM_UP_ROWS, null);
+
+        double perRow = ingest("per-row", ROWS, 1);
+        double batched = ingest("batched", ROWS, null);
+
+        System.out.printf("JenkinsTestCase ingest of %d rows: per row %.0f rows/sec, batched %.0f rows/sec (%.1fx)%n",
+                ROWS, perRow, batched, batched / perRow);
+        assertTrue(batched > perRow, "batched " + batched + " rows/sec vs per row " + perRow);
+    }
+
+    // Rows/sec of inserting a fresh build; batchSize overrides the session's JDBC batch size
+    private double ingest(String jobName, int rows, Integer batchSize) {
+        JenkinsResult result = jenkinsResultRepository.save(new JenkinsResult(jobName, "1", "SUCCESS"));
+        List<JenkinsTestCase> testCases = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            // Distinct names per job, so both runs create their identities too
+            JenkinsTestCase testCase = new JenkinsTestCase("test" + i, "com.example." + jobName + ".Suite" + (i % 50),
+                    i % 20 == 0 ? "FAILED" : "PASSED");
+            testCase.setDuration(0.01 * (i % 300));
+            if (i % 20 == 0) {
+                testCase.setErrorMessage("expected <" + i + "> but was <0>");
+            }
+            testCases.add(testCase);
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long start = System.nanoTime();
+        JenkinsTestCaseWriter.UpsertSummary summary = transaction.execute(status -> {
+            if (batchSize != null) {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            }
+            return jenkinsTestCaseWriter.upsert(result, testCases);
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertEquals(rows, summary.getInserted());
+        assertEquals(rows, jenkinsTestCaseRepository.findByJenkinsResultIdOrderByIdAsc(result.getId()).size());
+        return rows / seconds;
+    }
+}
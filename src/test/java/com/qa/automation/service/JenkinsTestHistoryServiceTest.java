@@ -0,0 +1,226 @@
+package com.qa.automation.service;
+
+import com.qa.automation.model.JenkinsResult;
+import com.qa.automation.model.JenkinsTestCase;
+import com.qa.automation.repository.JenkinsTestIdentityRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JenkinsTestHistoryServiceTest {
+
+    private static final String JOB = "team/api-tests";
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void insertZeroBitShiftsUpFromPositionWithinOneWord() {
+        long[] bits = {0b1011L};
+        JenkinsTestHistoryService.insertZeroBit(bits, 0, 1, 1);
+        assertEquals(0b10101L, bits[0]);
+    }
+
+    @Test
+    void insertZeroBitCarriesAcrossWordsAndDropsTopBit() {
+        // Two planes of two words; only the second plane is shifted
+        long[] bits = {7L, 0L, 1L << 63, (1L << 63) | 1L};
+        JenkinsTestHistoryService.insertZeroBit(bits, 2, 2, 0);
+        assertArrayEquals(new long[]{7L, 0L, 0L, 3L}, bits);
+
+        long[] top = {0L, 1L << 63};
+        JenkinsTestHistoryService.insertZeroBit(top, 0, 2, 64);
+        assertArrayEquals(new long[]{0L, 0L}, top);
+    }
+
+    @Test
+    void failingRunCountsFailuresUpToTheNextPass() {
+        JenkinsTestHistoryService service = newService(64);
+        // Newest first: F F S F P F
+        long[] bits = {0b010000L, 0b101011L, 0b000100L};
+
+        assertArrayEquals(new int[]{3, 3}, service.failingRun(bits, 0, 6));
+        assertArrayEquals(new int[]{2, 3}, service.failingRun(bits, 1, 6));
+        assertArrayEquals(new int[]{0, -1}, service.failingRun(bits, 4, 6));
+        assertArrayEquals(new int[]{1, 5}, service.failingRun(bits, 5, 6));
+        assertArrayEquals(new int[]{2, 1}, service.failingRun(bits, 0, 3));
+    }
+
+    @Test
+    void summaryCountsFlipsOnlyBetweenAdjacentRuns() {
+        JenkinsTestHistoryService service = newService(64);
+        // Test 1, oldest first: P F P - P F F; test 2 keeps the skipped build's column
+        String[] outcomes = {"PASSED", "FAILED", "PASSED", null, "PASSED", "FAILED", "FAILED"};
+        List<JenkinsTestHistoryService.Transition> last = null;
+        for (int build = 0; build < outcomes.length; build++) {
+            Map<Long, String> tests = new HashMap<>();
+            tests.put(2L, "PASSED");
+            if (outcomes[build] != null) {
+                tests.put(1L, outcomes[build]);
+            }
+            last = record(service, build + 1, build, tests);
+        }
+
+        Map<String, Object> history = service.getHistory(JOB, 1L, 50).orElseThrow();
+        assertEquals(6, history.get("runs"));
+        assertEquals(3, history.get("passed"));
+        assertEquals(3, history.get("failed"));
+        assertEquals(3, history.get("flips"));
+        assertEquals(0.75, (Double) history.get("flipRate"), 1e-9);
+        assertEquals(2, history.get("failingStreak"));
+        assertEquals("6", history.get("failingSinceBuild"));
+        assertEquals(List.of("FAILED", "FAILED", "PASSED", "NOT_RUN", "PASSED", "FAILED", "PASSED"), statuses(history));
+
+        JenkinsTestHistoryService.Transition transition = last.stream()
+                .filter(t -> t.getTestIdentityId() == 1L).findFirst().orElseThrow();
+        assertEquals("FAILED", transition.getStatus());
+        assertEquals("FAILED", transition.getPreviousStatus());
+        assertEquals("6", transition.getPreviousBuildNumber());
+        assertEquals(2, transition.getFailingStreak());
+    }
+
+    @Test
+    void flipsAreCountedAcrossWordBoundaries() {
+        JenkinsTestHistoryService service = newService(128);
+        for (int build = 0; build < 100; build++) {
+            record(service, build + 1, build, Map.of(1L, build % 2 == 0 ? "PASSED" : "FAILED"));
+        }
+
+        Map<String, Object> history = service.getHistory(JOB, 1L, 1).orElseThrow();
+        assertEquals(100, history.get("runs"));
+        assertEquals(99, history.get("flips"));
+        assertEquals(1.0, (Double) history.get("flipRate"), 1e-9);
+        assertEquals(1, history.get("failingStreak"));
+    }
+
+    @Test
+    void reingestReplacesTheBuildColumn() {
+        JenkinsTestHistoryService service = newService(64);
+        record(service, 1, 0, Map.of(1L, "PASSED"));
+        record(service, 2, 1, Map.of(1L, "FAILED", 2L, "FAILED"));
+
+        record(service, 2, 1, Map.of(1L, "PASSED"));
+
+        Map<String, Object> history = service.getHistory(JOB, 1L, 50).orElseThrow();
+        assertEquals(List.of("PASSED", "PASSED"), statuses(history));
+        assertEquals(0, history.get("failed"));
+        assertTrue(service.getHistory(JOB, 2L, 50).isEmpty(), "a test only in the replaced build leaves the index");
+        assertEquals(2L, service.getStats().get("builds"));
+    }
+
+    @Test
+    void lateBuildIsInsertedInTimestampOrder() {
+        JenkinsTestHistoryService service = newService(64);
+        record(service, 1, 0, Map.of(1L, "PASSED"));
+        record(service, 3, 2, Map.of(1L, "FAILED"));
+        record(service, 2, 1, Map.of(1L, "SKIPPED"));
+
+        Map<String, Object> history = service.getHistory(JOB, 1L, 50).orElseThrow();
+        assertEquals(List.of("3", "2", "1"), buildNumbers(history));
+        assertEquals(List.of("FAILED", "SKIPPED", "PASSED"), statuses(history));
+    }
+
+    @Test
+    void oldestBuildFallsOutOfTheWindow() {
+        JenkinsTestHistoryService service = newService(64);
+        record(service, 1, 0, Map.of(1L, "PASSED", 2L, "FAILED"));
+        for (int build = 1; build <= 64; build++) {
+            record(service, build + 1, build, Map.of(1L, "PASSED"));
+        }
+
+        assertTrue(service.getHistory(JOB, 2L, 50).isEmpty());
+        assertEquals(64, service.getHistory(JOB, 1L, 50).orElseThrow().get("runs"));
+    }
+
+    @Test
+    void flakyTestsAreRankedByFlipRate() {
+        JenkinsTestHistoryService service = newService(64);
+        for (int build = 0; build < 12; build++) {
+            Map<Long, String> tests = new HashMap<>();
+            tests.put(1L, build % 2 == 0 ? "PASSED" : "FAILED");
+            tests.put(2L, build % 4 == 0 ? "FAILED" : "PASSED");
+            tests.put(3L, "PASSED");
+            record(service, build + 1, build, tests);
+        }
+
+        List<Map<String, Object>> flaky = service.getFlakyTests(JOB, 0, 10, 10);
+        assertEquals(List.of(1L, 2L), flaky.stream().map(test -> test.get("testIdentityId")).collect(Collectors.toList()));
+    }
+
+    @Test
+    void snapshotRoundTripRestoresTheIndex() {
+        JenkinsTestHistoryService writer = newService(128);
+        for (int build = 0; build < 70; build++) {
+            record(writer, build + 1, build, Map.of(1L, build % 3 == 0 ? "FAILED" : "PASSED", 2L, "SKIPPED"));
+        }
+        writer.scheduledSnapshot();
+
+        JenkinsTestHistoryService reader = newService(128);
+        reader.loadSnapshot();
+
+        assertEquals("SNAPSHOT", reader.getStats().get("source"));
+        assertEquals(writer.getHistory(JOB, 1L, 100), reader.getHistory(JOB, 1L, 100));
+        assertEquals(writer.getHistory(JOB, 2L, 100), reader.getHistory(JOB, 2L, 100));
+        assertEquals(writer.getStats().get("tests"), reader.getStats().get("tests"));
+    }
+
+    @Test
+    void snapshotOfAnotherWindowSizeIsIgnored() {
+        JenkinsTestHistoryService writer = newService(128);
+        record(writer, 1, 0, Map.of(1L, "PASSED"));
+        writer.scheduledSnapshot();
+
+        JenkinsTestHistoryService reader = newService(64);
+        reader.loadSnapshot();
+
+        assertEquals("EMPTY", reader.getStats().get("source"));
+        assertTrue(reader.getHistory(JOB, 1L, 10).isEmpty());
+    }
+
+    private JenkinsTestHistoryService newService(int maxBuilds) {
+        JenkinsTestIdentityRepository identities = mock(JenkinsTestIdentityRepository.class);
+        when(identities.findAllById(any())).thenReturn(new ArrayList<>());
+        JenkinsTestHistoryService service = new JenkinsTestHistoryService();
+        ReflectionTestUtils.setField(service, "maxBuilds", maxBuilds);
+        ReflectionTestUtils.setField(service, "snapshotPath", tempDir.resolve("history.bin").toString());
+        ReflectionTestUtils.setField(service, "jenkinsTestIdentityRepository", identities);
+        return service;
+    }
+
+    private List<JenkinsTestHistoryService.Transition> record(JenkinsTestHistoryService service, long resultId, int minutes,
+                                                              Map<Long, String> statuses) {
+        JenkinsResult result = new JenkinsResult(JOB, String.valueOf(resultId), "SUCCESS");
+        result.setId(resultId);
+        result.setBuildTimestamp(START.plusMinutes(minutes));
+        List<JenkinsTestCase> testCases = new ArrayList<>();
+        for (Map.Entry<Long, String> entry : statuses.entrySet()) {
+            JenkinsTestCase testCase = new JenkinsTestCase("test" + entry.getKey(), "com.example.Suite", entry.getValue());
+            testCase.setTestIdentityId(entry.getKey());
+            testCases.add(testCase);
+        }
+        return service.recordBuild(result, testCases);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> statuses(Map<String, Object> history) {
+        return ((List<Map<String, Object>>) history.get("history")).stream()
+                .map(run -> (String) run.get("status")).collect(Collectors.toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> buildNumbers(Map<String, Object> history) {
+        return ((List<Map<String, Object>>) history.get("history")).stream()
+                .map(run -> (String) run.get("buildNumber")).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,139 @@
+package com.qa.automation.service;
+
+import com.qa.automation.model.JenkinsTestCase;
+import com.qa.automation.model.JenkinsTestIdentity;
+import com.qa.automation.repository.JenkinsTestIdentityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.*;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class JenkinsTestIdentityServiceTest {
+
+    private static final String CLASS = "com.example.Suite";
+
+    // Stand-in for jenkins_test_identities; storedName models what the column keeps of an inserted name
+    private final Map<Long, JenkinsTestIdentity> rows = new HashMap<>();
+    private UnaryOperator<String> storedName = UnaryOperator.identity();
+    // Runs once, just before the next batch insert, to model another ingest racing this one
+    private Runnable concurrentInsert;
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private JenkinsTestIdentityService service;
+
+    @BeforeEach
+    void setUp() {
+        JenkinsTestIdentityRepository repository = mock(JenkinsTestIdentityRepository.class);
+        when(repository.findAllById(any())).thenAnswer(invocation -> {
+            List<JenkinsTestIdentity> found = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                if (rows.containsKey(id)) {
+                    found.add(rows.get(id));
+                }
+            }
+            return found;
+        });
+        when(repository.findById(anyLong())).thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.<Long>getArgument(0))));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> inserts = invocation.getArgument(1);
+            if (concurrentInsert != null) {
+                concurrentInsert.run();
+                concurrentInsert = null;
+            }
+            for (Object[] insert : inserts) {
+                if (rows.containsKey((Long) insert[0])) {
+                    throw new DuplicateKeyException("Duplicate entry '" + insert[0] + "' for key 'PRIMARY'");
+                }
+            }
+            for (Object[] insert : inserts) {
+                store(insert);
+            }
+            return new int[inserts.size()];
+        });
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            Object[] insert = Arrays.copyOfRange(invocation.getArguments(), 1, invocation.getArguments().length);
+            if (rows.containsKey((Long) insert[0])) {
+                throw new DuplicateKeyException("Duplicate entry '" + insert[0] + "' for key 'PRIMARY'");
+            }
+            store(insert);
+            return 1;
+        });
+
+        service = new JenkinsTestIdentityService();
+        ReflectionTestUtils.setField(service, "jenkinsTestIdentityRepository", repository);
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "cacheSize", 1000);
+        service.setTransactionManager(mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void namesLongerThanTheColumnAreShortenedToWhatIsStored() {
+        String prefix = "dataProvider[" + "x".repeat(1100);
+        JenkinsTestCase first = new JenkinsTestCase(prefix + "-first]", CLASS, "PASSED");
+        JenkinsTestCase second = new JenkinsTestCase(prefix + "-second]", CLASS, "PASSED");
+        // Columns truncate like INSERT IGNORE used to; only names that already fit survive unchanged
+        storedName = name -> name.length() > JenkinsTestIdentity.MAX_TEST_NAME_LENGTH
+                ? name.substring(0, JenkinsTestIdentity.MAX_TEST_NAME_LENGTH) : name;
+
+        service.assignIdentities(List.of(first, second));
+
+        assertEquals(2, rows.size());
+        assertNotEquals(first.getTestIdentityId(), second.getTestIdentityId());
+        for (JenkinsTestCase testCase : List.of(first, second)) {
+            assertEquals(JenkinsTestIdentity.MAX_TEST_NAME_LENGTH, testCase.getTestName().length());
+            assertTrue(testCase.getTestName().startsWith(prefix.substring(0, 1000)));
+            assertEquals(testCase.getTestName(), rows.get(testCase.getTestIdentityId()).getTestName());
+        }
+        assertEquals(Optional.of(first.getTestIdentityId()), service.findIdentityId(CLASS, prefix + "-first]"));
+    }
+
+    @Test
+    void fitKeepsSurrogatePairsWhole() {
+        // The cut would fall between the two halves of the emoji
+        String name = "a".repeat(1006) + "😀" + "x".repeat(50);
+
+        String fitted = JenkinsTestIdentityService.fit(name, 1024);
+
+        assertEquals(1023, fitted.length());
+        assertEquals("a".repeat(1006) + '#', fitted.substring(0, 1007));
+    }
+
+    @Test
+    void idClaimedByAConcurrentIngestIsProbedPast() {
+        String testName = "testLogin";
+        long home = JenkinsTestIdentity.hashOf(CLASS, testName);
+        // Another ingest inserts a different test at the home id between our lookup and insert
+        concurrentInsert = () -> rows.put(home, new JenkinsTestIdentity(home, CLASS, "testOther"));
+
+        JenkinsTestCase testCase = new JenkinsTestCase(testName, CLASS, "PASSED");
+        service.assignIdentities(List.of(testCase));
+
+        assertEquals(home + 1, testCase.getTestIdentityId());
+        assertEquals(testName, rows.get(home + 1).getTestName());
+    }
+
+    @Test
+    void probingStopsWhenTheDatabaseAltersStoredNames() {
+        // e.g. a lenient sql_mode replacing characters the column charset cannot hold
+        storedName = name -> name.replace('é', '?');
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> service.assignIdentities(List.of(new JenkinsTestCase("testCafé", CLASS, "PASSED"))));
+
+        assertTrue(error.getMessage().contains(JenkinsTestIdentityService.MAX_PROBE_ROUNDS + " probe rounds"));
+        assertTrue(rows.size() <= JenkinsTestIdentityService.MAX_PROBE_ROUNDS);
+    }
+
+    private void store(Object[] insert) {
+        long id = (Long) insert[0];
+        rows.put(id, new JenkinsTestIdentity(id, storedName.apply((String) insert[1]), storedName.apply((String) insert[2])));
+    }
+}